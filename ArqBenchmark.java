@@ -0,0 +1,147 @@
+// =============================================================================
+// IMPORTS
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+// =============================================================================
+
+
+
+// =============================================================================
+/**
+ * Measures how a sliding-window data link layer fares against its window
+ * size.  For each size, a fresh medium and pair of hosts carry a file from
+ * one host to the other, and the run is reported by its goodput, the payload
+ * bytes delivered per second, and its efficiency, the share of the bytes put
+ * on the medium, in both directions, that was payload.
+ *
+ * @file   ArqBenchmark.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class ArqBenchmark {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Run the file across each window size in turn.
+     *
+     * @param args The medium type, the data link layer type (one that
+     *             extends <code>ArqDataLinkLayer</code>), the file to send,
+     *             <code>sync</code> or <code>async</code>, and one or more
+     *             window sizes.
+     */
+    public static void main (String[] args) {
+
+	if (args.length < 5 ||
+	    !(args[3].equals("sync") || args[3].equals("async"))) {
+
+	    System.err.println("Usage: java ArqBenchmark "   +
+			       "<medium type> "              +
+			       "<data link layer type> "     +
+			       "<transmission data file> "   +
+			       "<sync|async> "               +
+			       "<window size>...");
+	    System.exit(1);
+
+	}
+
+	String  mediumType        = args[0];
+	String  dataLinkLayerType = args[1];
+	boolean async             = args[3].equals("async");
+	byte[]  data;
+	try {
+	    data = Files.readAllBytes(Paths.get(args[2]));
+	} catch (IOException e) {
+	    throw new RuntimeException(args[2] + " is not a readable file");
+	}
+
+	for (int a = 4; a < args.length; a += 1) {
+
+	    int    windowSize = Integer.parseInt(args[a]);
+	    Medium medium     = Medium.create(mediumType);
+	    if (async) {
+		medium.setAsynchronous(QUEUE_CAPACITY);
+	    }
+	    Host sender   = new Host(medium, dataLinkLayerType);
+	    Host receiver = new Host(medium, dataLinkLayerType);
+	    ArqDataLinkLayer out = arq(sender);
+	    ArqDataLinkLayer in  = arq(receiver);
+	    out.setWindowSize(windowSize);
+	    in.setWindowSize(windowSize);
+
+	    long start = System.nanoTime();
+	    sender.send(data);
+	    medium.shutdown();
+	    long elapsed = System.nanoTime() - start;
+
+	    byte[] received  = receiver.retrieve();
+	    long   delivered = in.getPayloadBytesDelivered();
+	    long   wireBytes = out.getBytesTransmitted() + in.getBytesTransmitted();
+	    System.out.printf("window %3d: %s, %d bytes in %.3f s, "        +
+			      "%d data frames (%d resent), %d bytes on the " +
+			      "wire, efficiency %.1f%%, goodput %.1f KB/s%n",
+			      windowSize,
+			      Arrays.equals(data, received) ? "intact" : "CORRUPT",
+			      delivered,
+			      elapsed / 1e9,
+			      out.getDataFramesSent(),
+			      out.getRetransmissions(),
+			      wireBytes,
+			      100.0 * delivered / wireBytes,
+			      delivered / (elapsed / 1e9) / 1024.0);
+
+	}
+
+    } // main ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // PRIVATE METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The host's data link layer, as a sliding-window one.
+     * @throws RuntimeException if the host's layer does not use a window.
+     */
+    private static ArqDataLinkLayer arq (Host host) {
+
+	DataLinkLayer layer = host.getDataLinkLayer();
+	if (!(layer instanceof ArqDataLinkLayer)) {
+	    throw new RuntimeException(layer.getClass().getName() +
+				       " is not a sliding-window layer");
+	}
+	return (ArqDataLinkLayer)layer;
+
+    } // arq ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** The number of deliveries each receiver queues when asynchronous. */
+    private static final int QUEUE_CAPACITY = 1024;
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class ArqBenchmark
+// =============================================================================
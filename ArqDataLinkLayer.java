@@ -0,0 +1,966 @@
+// =============================================================================
+// IMPORTS
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.Checksum;
+// =============================================================================
+
+
+
+// =============================================================================
+/**
+ * A data link layer that recovers lost and corrupted frames by automatic
+ * repeat request (ARQ) over a sliding window, for a link between two hosts.
+ *
+ * Every frame is delimited by tags, as in the other layers, and carries a
+ * type, an 8-bit sequence number and a CRC-32.  The sender keeps up to a
+ * window's worth of data frames unacknowledged.  The receiver answers each
+ * data frame with an ACK that carries the next sequence number it expects,
+ * acknowledging everything before it, and answers a gap or a corrupted frame
+ * with a NAK for that number.  A frame that is neither acknowledged nor
+ * NAKed before its timer runs out is sent again.  The subclasses decide what
+ * is resent, and what the receiver does with frames that arrive out of
+ * order.
+ *
+ * Unacknowledged frames are not copied: the window holds the position of
+ * each frame's payload within the caller's array, and a frame is rebuilt
+ * from there whenever it is resent.  <code>send()</code> therefore returns
+ * only once every frame has been acknowledged.
+ *
+ * On an asynchronous medium, acknowledgements arrive on the physical layer's
+ * receiver thread, and timers run in real time.  On a synchronous medium,
+ * every reply to a frame has arrived by the time the frame has been sent, so
+ * a sender with nothing to do has nothing to wait for, and its timers are
+ * taken to have run out at once.
+ *
+ * @file   ArqDataLinkLayer.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public abstract class ArqDataLinkLayer extends DataLinkLayer {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @param  windowSize The most data frames to keep unacknowledged at once.
+     * @throws RuntimeException if the size is not positive, or too large for
+     *                          the sequence numbers to tell frames apart.
+     */
+    public void setWindowSize (int windowSize) {
+
+	if (windowSize < 1 || windowSize > getMaxWindowSize()) {
+	    throw new RuntimeException("Invalid window size " + windowSize);
+	}
+	lock.lock();
+	try {
+	    this.windowSize = windowSize;
+	} finally {
+	    lock.unlock();
+	}
+
+    } // setWindowSize ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The most data frames kept unacknowledged at once.
+     */
+    public int getWindowSize () {
+
+	return windowSize;
+
+    } // getWindowSize ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @param  timeoutMillis How long to wait for a frame to be acknowledged
+     *                       before sending it again, in milliseconds.
+     * @throws RuntimeException if the timeout is not positive.
+     */
+    public void setTimeout (long timeoutMillis) {
+
+	if (timeoutMillis < 1) {
+	    throw new RuntimeException("Invalid timeout " + timeoutMillis);
+	}
+	this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+    } // setTimeout ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @param payloadSize The number of data bytes per frame.
+     */
+    public void setPayloadSize (int payloadSize) {
+
+	lock.lock();
+	try {
+	    payloadSizer.setFixed(payloadSize);
+	} finally {
+	    lock.unlock();
+	}
+
+    } // setPayloadSize ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Grow or shrink the number of data bytes per frame to get the most data
+     * through.  Each acknowledged frame is reported as intact if it got
+     * through the first time it was sent.
+     *
+     * @param minSize The fewest data bytes per frame.
+     * @param maxSize The most data bytes per frame.
+     */
+    public void setAdaptivePayloadSize (int minSize, int maxSize) {
+
+	lock.lock();
+	try {
+	    payloadSizer.setAdaptive(minSize, maxSize);
+	} finally {
+	    lock.unlock();
+	}
+
+    } // setAdaptivePayloadSize ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Report whether a frame of the given size got through, to steer the
+     * adaptive payload size.
+     *
+     * @param frameBytes The number of bytes in the frame, tags included.
+     * @param intact     Whether the frame got through.
+     */
+    public void recordFrameOutcome (int frameBytes, boolean intact) {
+
+	lock.lock();
+	try {
+	    payloadSizer.recordFrame(frameBytes, intact);
+	} finally {
+	    lock.unlock();
+	}
+
+    } // recordFrameOutcome ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The number of data frames sent, resent ones included.
+     */
+    public long getDataFramesSent () {
+
+	return dataFramesSent.sum();
+
+    } // getDataFramesSent ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The number of data frames resent.
+     */
+    public long getRetransmissions () {
+
+	return retransmissions.sum();
+
+    } // getRetransmissions ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The number of bytes this layer has put on the medium, in data
+     *         and control frames alike.
+     */
+    public long getBytesTransmitted () {
+
+	return bytesTransmitted.sum();
+
+    } // getBytesTransmitted ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The number of payload bytes this layer has delivered to its
+     *         client.
+     */
+    public long getPayloadBytesDelivered () {
+
+	return payloadBytesDelivered.sum();
+
+    } // getPayloadBytesDelivered ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Send a sequence of bytes reliably, returning once all of it has been
+     * acknowledged.
+     *
+     * @param  data The sequence of bytes to send.
+     * @throws RuntimeException if a frame goes unacknowledged however many
+     *                          times it is sent.
+     */
+    public void send (byte[] data) {
+
+	int   offset  = 0;
+	int[] pending = new int[SEQUENCE_SPACE];
+	try {
+	    while (true) {
+
+		// Decide what to send, and wait if there is nothing.
+		int count = 0;
+		lock.lock();
+		try {
+
+		    long now = System.nanoTime();
+		    if (sendNext != sendBase) {
+			handleTimeout(now);
+		    }
+		    stalled = false;
+
+		    // First, any frames due to be resent...
+		    for (int i = 0; i < outstanding(); i += 1) {
+			int seq = (sendBase + i) & SEQUENCE_MASK;
+			if (resend[seq] && !acked[seq]) {
+			    attempts[seq] += 1;
+			    if (attempts[seq] > MAX_ATTEMPTS) {
+				throw new RuntimeException("Frame " + seq +
+							   " unacknowledged after " +
+							   MAX_ATTEMPTS + " attempts");
+			    }
+			    sentAt[seq]      = now;
+			    pending[count++] = seq;
+			    retransmissions.increment();
+			}
+			resend[seq] = false;
+		    }
+
+		    // ...then new frames, as far as the window allows.
+		    while (outstanding() < windowSize && offset < data.length) {
+			int seq    = sendNext;
+			int length = Math.min(payloadSizer.getPayloadSize(),
+					      data.length - offset);
+			slotData[seq]    = data;
+			slotOffset[seq]  = offset;
+			slotLength[seq]  = length;
+			acked[seq]       = false;
+			resend[seq]      = false;
+			attempts[seq]    = 1;
+			sentAt[seq]      = now;
+			pending[count++] = seq;
+			sendNext         = (sendNext + 1) & SEQUENCE_MASK;
+			offset          += length;
+		    }
+
+		    if (count == 0) {
+			if (sendNext == sendBase) {
+			    return;
+			}
+			awaitProgress(now);
+			continue;
+		    }
+
+		} finally {
+		    lock.unlock();
+		}
+
+		// Send without holding the lock, so that acknowledgements can
+		// be handled meanwhile.
+		for (int i = 0; i < count; i += 1) {
+		    transmitData(pending[i]);
+		}
+
+	    }
+	} finally {
+	    lock.lock();
+	    try {
+		Arrays.fill(slotData, null);
+	    } finally {
+		lock.unlock();
+	    }
+	}
+
+    } // send ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // PROTECTED METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Frame the data as a single data frame carrying the next sequence
+     * number, without sending it or holding it for acknowledgement.
+     *
+     * @param  data The raw sequence of bytes to be framed.
+     * @return A complete frame.
+     */
+    protected byte[] createFrame (byte[] data) {
+
+	int length = encode(frameEncoder, sendChecksum, DATA, sendNext,
+			    data, 0, data.length);
+	return Arrays.copyOf(frameEncoder.getBuffer(), length);
+
+    } // createFrame ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Handle a complete frame once one has arrived: answer data frames and
+     * return any data now ready for the client, and act on control frames.
+     *
+     * @return The data to deliver, if any; <code>null</code> otherwise.
+     */
+    protected byte[] processFrame () {
+
+	byte[] frame = deframer.accept(byteBuffer);
+	if (frame == null) {
+	    return null;
+	}
+
+	// A frame that fails its check can not be trusted even for its type,
+	// so the best answer is a NAK for whatever is expected next.
+	if (frame.length < HEADER_BYTES + CRC_BYTES || !checkFrame(frame)) {
+	    if (debug) {
+		System.out.println("ArqDataLinkLayer.processFrame(): " +
+				   "Corrupted frame");
+	    }
+	    sendNak();
+	    return null;
+	}
+
+	int type = frame[0];
+	int seq  = frame[1] & 0xff;
+	if (type == DATA) {
+	    byte[] data = acceptData(seq, frame);
+	    if (data != null) {
+		payloadBytesDelivered.add(data.length);
+	    }
+	    return data;
+	}
+	if (frame.length != HEADER_BYTES + 1 + CRC_BYTES) {
+	    return null;
+	}
+	int next = frame[HEADER_BYTES] & 0xff;
+
+	lock.lock();
+	try {
+	    if (type == ACK) {
+		acknowledgeThrough(next);
+		handleAck(seq);
+	    } else if (type == NAK) {
+		acknowledgeThrough(seq);
+		handleNak(seq);
+	    }
+	    advanceBase();
+	    progress.signalAll();
+	} finally {
+	    lock.unlock();
+	}
+	return null;
+
+    } // processFrame ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The largest window the variant allows with 8-bit sequence
+     *         numbers.
+     */
+    protected abstract int getMaxWindowSize ();
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Mark for resending whatever should be resent now that time has passed.
+     * Called with the lock held whenever frames are outstanding.
+     *
+     * @param now The current time, from <code>System.nanoTime()</code>.
+     */
+    protected abstract void handleTimeout (long now);
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Act on a NAK, every frame before which has already been acknowledged.
+     * Called with the lock held.
+     *
+     * @param seq The sequence number the receiver is missing.
+     */
+    protected abstract void handleNak (int seq);
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Act on an ACK for one frame beyond what it acknowledges cumulatively.
+     * Called with the lock held.  By default, there is nothing more to do.
+     *
+     * @param seq The sequence number of the frame that prompted the ACK.
+     */
+    protected void handleAck (int seq) {
+
+    } // handleAck ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Receive an intact data frame, answer it, and return whatever data is
+     * now ready for the client.
+     *
+     * @param  seq   The sequence number of the frame.
+     * @param  frame The frame's type, sequence number, payload and CRC.
+     * @return The data to deliver, if any; <code>null</code> otherwise.
+     */
+    protected abstract byte[] acceptData (int seq, byte[] frame);
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The number of frames sent and not yet acknowledged
+     *         cumulatively.
+     */
+    protected int outstanding () {
+
+	return distance(sendBase, sendNext);
+
+    } // outstanding ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @param  seq A sequence number.
+     * @return Whether the frame with that number is outstanding.
+     */
+    protected boolean isOutstanding (int seq) {
+
+	return distance(sendBase, seq) < outstanding();
+
+    } // isOutstanding ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The sequence number of the oldest outstanding frame.
+     */
+    protected int getSendBase () {
+
+	return sendBase;
+
+    } // getSendBase ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @param  seq The sequence number of an outstanding frame.
+     * @return Whether the frame has been acknowledged.
+     */
+    protected boolean isAcked (int seq) {
+
+	return acked[seq];
+
+    } // isAcked ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @param  seq The sequence number of an outstanding frame.
+     * @param  now The current time, from <code>System.nanoTime()</code>.
+     * @return Whether the frame's timer has run out.
+     */
+    protected boolean hasExpired (int seq, long now) {
+
+	return stalled || (now - sentAt[seq] >= timeoutNanos);
+
+    } // hasExpired ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Acknowledge one outstanding frame.
+     *
+     * @param seq The sequence number of the frame.
+     */
+    protected void acknowledge (int seq) {
+
+	if (acked[seq]) {
+	    return;
+	}
+	acked[seq] = true;
+	payloadSizer.recordFrame(HEADER_BYTES + slotLength[seq] + CRC_BYTES + 2,
+				 attempts[seq] == 1);
+
+    } // acknowledge ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Mark an outstanding frame to be resent.
+     *
+     * @param seq The sequence number of the frame.
+     */
+    protected void markForResend (int seq) {
+
+	resend[seq] = true;
+
+    } // markForResend ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Mark every outstanding frame from the given one onward to be resent.
+     *
+     * @param from The sequence number of the first frame to resend.
+     */
+    protected void markForResendFrom (int from) {
+
+	for (int seq = from; isOutstanding(seq); seq = (seq + 1) & SEQUENCE_MASK) {
+	    resend[seq] = true;
+	}
+
+    } // markForResendFrom ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The sequence number of the next data frame the receiver
+     *         expects.
+     */
+    protected int getReceiveNext () {
+
+	return receiveNext;
+
+    } // getReceiveNext ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Move the receiver on to the next sequence number.
+     */
+    protected void advanceReceiveNext () {
+
+	receiveNext = (receiveNext + 1) & SEQUENCE_MASK;
+	nakSent     = false;
+
+    } // advanceReceiveNext ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Send an ACK acknowledging every frame before the next expected one.
+     *
+     * @param seq The sequence number of the frame that prompted the ACK.
+     */
+    protected void sendAck (int seq) {
+
+	sendControl(ACK, seq, receiveNext);
+
+    } // sendAck ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Send a NAK for the next expected frame, unless one has already been
+     * sent for it.
+     *
+     * @return Whether a NAK was sent.
+     */
+    protected boolean sendNak () {
+
+	if (nakSent) {
+	    return false;
+	}
+	nakSent = true;
+	sendControl(NAK, receiveNext, 0);
+	return true;
+
+    } // sendNak ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @param  frame An intact data frame.
+     * @return The number of payload bytes in the frame.
+     */
+    protected static int payloadLength (byte[] frame) {
+
+	return frame.length - HEADER_BYTES - CRC_BYTES;
+
+    } // payloadLength ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Copy a data frame's payload.
+     *
+     * @param frame       An intact data frame.
+     * @param destination The array into which to copy.
+     * @param offset      Where in the array to copy to.
+     */
+    protected static void copyPayload (byte[] frame,
+				       byte[] destination,
+				       int    offset) {
+
+	System.arraycopy(frame, HEADER_BYTES, destination, offset,
+			 payloadLength(frame));
+
+    } // copyPayload ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return How far forward <code>to</code> is from <code>from</code>, in
+     *         sequence numbers.
+     */
+    protected static int distance (int from, int to) {
+
+	return (to - from) & SEQUENCE_MASK;
+
+    } // distance ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // PRIVATE METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Wait until an acknowledgement arrives or the oldest timer runs out.  On
+     * a synchronous link nothing more can arrive, so mark the timers as run
+     * out instead.
+     */
+    private void awaitProgress (long now) {
+
+	if (!physicalLayer.isAsynchronous()) {
+	    stalled = true;
+	    return;
+	}
+
+	long deadline = Long.MAX_VALUE;
+	for (int i = 0; i < outstanding(); i += 1) {
+	    int seq = (sendBase + i) & SEQUENCE_MASK;
+	    if (!acked[seq]) {
+		deadline = Math.min(deadline, sentAt[seq] + timeoutNanos);
+	    }
+	}
+	try {
+	    long wait = deadline - now;
+	    if (wait > 0) {
+		progress.awaitNanos(wait);
+	    }
+	} catch (InterruptedException e) {
+	    Thread.currentThread().interrupt();
+	    throw new RuntimeException("Interrupted while awaiting acknowledgement");
+	}
+
+    } // awaitProgress ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Acknowledge every outstanding frame before the given one.
+     */
+    private void acknowledgeThrough (int next) {
+
+	int count = distance(sendBase, next);
+	if (count > outstanding()) {
+	    return;
+	}
+	for (int i = 0; i < count; i += 1) {
+	    acknowledge((sendBase + i) & SEQUENCE_MASK);
+	}
+
+    } // acknowledgeThrough ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Slide the window past the acknowledged frames at its start.
+     */
+    private void advanceBase () {
+
+	while (sendBase != sendNext && acked[sendBase]) {
+	    sendBase = (sendBase + 1) & SEQUENCE_MASK;
+	}
+
+    } // advanceBase ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Rebuild an outstanding data frame from the caller's array and send it.
+     */
+    private void transmitData (int seq) {
+
+	int length = encode(frameEncoder, sendChecksum, DATA, seq,
+			    slotData[seq], slotOffset[seq], slotLength[seq]);
+	transmit(frameEncoder.getBuffer(), 0, length);
+	dataFramesSent.increment();
+	bytesTransmitted.add(length);
+
+    } // transmitData ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Build and send a control frame.  Only the receiving side of the layer
+     * sends these, so they have an encoder of their own.
+     */
+    private void sendControl (int type, int seq, int value) {
+
+	controlPayload[0] = (byte)value;
+	int length = encode(controlEncoder, receiveChecksum, type, seq,
+			    controlPayload, 0, 1);
+	transmit(controlEncoder.getBuffer(), 0, length);
+	bytesTransmitted.add(length);
+
+    } // sendControl ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Write a frame of the given type into an encoder: the type, the sequence
+     * number, the payload and the CRC-32 of all three.
+     *
+     * @return The number of bytes in the frame.
+     */
+    private static int encode (TagFrameEncoder encoder,
+			       Checksum        checksum,
+			       int             type,
+			       int             seq,
+			       byte[]          data,
+			       int             offset,
+			       int             length) {
+
+	encoder.begin(HEADER_BYTES + length + CRC_BYTES);
+	checksum.reset();
+	checksum.update(type);
+	checksum.update(seq);
+	encoder.put((byte)type);
+	encoder.put((byte)seq);
+	for (int i = offset; i < offset + length; i += 1) {
+	    checksum.update(data[i]);
+	    encoder.put(data[i]);
+	}
+	long crc = checksum.getValue();
+	for (int i = CRC_BYTES - 1; i >= 0; i -= 1) {
+	    encoder.put((byte)(crc >>> (i * BITS_PER_BYTE)));
+	}
+	return encoder.end();
+
+    } // encode ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return Whether the CRC at the end of the frame matches the rest of it.
+     */
+    private boolean checkFrame (byte[] frame) {
+
+	int length = frame.length - CRC_BYTES;
+	receiveChecksum.reset();
+	receiveChecksum.update(frame, 0, length);
+	long appended = 0;
+	for (int i = length; i < frame.length; i += 1) {
+	    appended = (appended << BITS_PER_BYTE) | (frame[i] & 0xff);
+	}
+	return receiveChecksum.getValue() == appended;
+
+    } // checkFrame ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** The frame types. */
+    protected static final int DATA = 0;
+    protected static final int ACK  = 1;
+    protected static final int NAK  = 2;
+
+    /** The number of sequence numbers, and the mask that wraps them. */
+    protected static final int SEQUENCE_SPACE = 256;
+    protected static final int SEQUENCE_MASK  = SEQUENCE_SPACE - 1;
+
+    /** The bytes of type and sequence number that begin every frame. */
+    private static final int   HEADER_BYTES = 2;
+
+    /** The bytes of CRC that end every frame. */
+    private static final int   CRC_BYTES    = 4;
+
+    /** The most times a frame is sent before the link is given up on. */
+    private static final int   MAX_ATTEMPTS = 100;
+
+    /** The defaults for the window, the timeout, and the payload size. */
+    private static final int   DEFAULT_WINDOW_SIZE    = 8;
+    private static final long  DEFAULT_TIMEOUT_MILLIS = 20;
+    private static final int   DEFAULT_PAYLOAD_SIZE   = 8;
+
+    // The start tag, stop tag, and the escape tag.
+    private final byte startTag  = (byte)'{';
+    private final byte stopTag   = (byte)'}';
+    private final byte escapeTag = (byte)'\\';
+
+    /** The deframer that extracts frames as their bytes arrive. */
+    private final TagDeframer deframer =
+	new TagDeframer(startTag, stopTag, escapeTag);
+
+    /** The encoders for data frames, and for control frames. */
+    private final TagFrameEncoder frameEncoder =
+	new TagFrameEncoder(startTag, stopTag, escapeTag);
+    private final TagFrameEncoder controlEncoder =
+	new TagFrameEncoder(startTag, stopTag, escapeTag);
+
+    /** The checksums for the sending and the receiving side. */
+    private final Checksum sendChecksum    = CrcSpec.CRC_32.newChecksum();
+    private final Checksum receiveChecksum = CrcSpec.CRC_32.newChecksum();
+
+    /** The payload of a control frame. */
+    private final byte[]   controlPayload  = new byte[1];
+
+    /** Guards the sending side, whose acknowledgements may arrive on
+     *  another thread, and signals when they do. */
+    private final ReentrantLock lock     = new ReentrantLock();
+    private final Condition     progress = lock.newCondition();
+
+    /** The number of data bytes per frame. */
+    private final PayloadSizer  payloadSizer =
+	new PayloadSizer(DEFAULT_PAYLOAD_SIZE, HEADER_BYTES + CRC_BYTES + 2);
+
+    /** The most data frames kept unacknowledged at once. */
+    private volatile int  windowSize   = DEFAULT_WINDOW_SIZE;
+
+    /** How long to wait for an acknowledgement. */
+    private volatile long timeoutNanos =
+	TimeUnit.MILLISECONDS.toNanos(DEFAULT_TIMEOUT_MILLIS);
+
+    /** The oldest outstanding sequence number, and the next one to use. */
+    private int sendBase;
+    private int sendNext;
+
+    /** Whether the sender has found nothing to do on a synchronous link. */
+    private boolean stalled;
+
+    /** The window, indexed by sequence number: where each payload lies in
+     *  the caller's array, when it was last sent, how often, and whether it
+     *  has been acknowledged or is due to be resent. */
+    private final byte[][]  slotData   = new byte[SEQUENCE_SPACE][];
+    private final int[]     slotOffset = new int[SEQUENCE_SPACE];
+    private final int[]     slotLength = new int[SEQUENCE_SPACE];
+    private final long[]    sentAt     = new long[SEQUENCE_SPACE];
+    private final int[]     attempts   = new int[SEQUENCE_SPACE];
+    private final boolean[] acked      = new boolean[SEQUENCE_SPACE];
+    private final boolean[] resend     = new boolean[SEQUENCE_SPACE];
+
+    /** The next sequence number the receiver expects. */
+    private int     receiveNext;
+
+    /** Whether a NAK has been sent for the expected sequence number. */
+    private boolean nakSent;
+
+    /** Counts of what has been sent and delivered. */
+    private final LongAdder dataFramesSent        = new LongAdder();
+    private final LongAdder retransmissions       = new LongAdder();
+    private final LongAdder bytesTransmitted      = new LongAdder();
+    private final LongAdder payloadBytesDelivered = new LongAdder();
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class ArqDataLinkLayer
+// =============================================================================
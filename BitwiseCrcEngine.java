@@ -0,0 +1,143 @@
+// =============================================================================
+/**
+ * Computes CRC remainders by plain long division, one bit at a time.  This is
+ * the slowest engine, kept as the reference the others must agree with.
+ *
+ * @file   BitwiseCrcEngine.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class BitwiseCrcEngine implements CrcEngine {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The constructor.
+     *
+     * @param generator The generator polynomial, including its leading term.
+     * @throws RuntimeException if the generator has no terms.
+     */
+    public BitwiseCrcEngine (int generator) {
+
+	if (generator == 0) {
+	    throw new RuntimeException("Unsupported generator " + generator);
+	}
+	this.generator = generator;
+	this.degree    = getNumOfBits(generator) - 1;
+
+    } // BitwiseCrcEngine ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public int remainder (byte[] data, int offset, int length, int lastByteBits) {
+
+	int currentDividend = 0;
+	int last            = offset + length - 1;
+	for (int i = offset; i <= last; i += 1) {
+	    int significantBits = (i == last) ? lastByteBits : BITS_PER_BYTE;
+	    currentDividend = divideCurrentDividend(currentDividend,
+						    data[i],
+						    significantBits);
+	}
+	return currentDividend;
+
+    } // remainder ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public int update (int remainder, byte value, int significantBits) {
+
+	return divideCurrentDividend(remainder, value, significantBits);
+
+    } // update ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public int getDegree () {
+
+	return degree;
+
+    } // getDegree ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // PRIVATE METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Bring the significant bits of one byte down into the dividend, most
+     * significant first, dividing by the generator whenever the dividend is
+     * big enough.
+     */
+    private int divideCurrentDividend (int currentDividend,
+				       byte currentByte,
+				       int significantBits) {
+
+	for (int bitCounter = BITS_PER_BYTE - 1;
+	     bitCounter >= BITS_PER_BYTE - significantBits;
+	     bitCounter -= 1) {
+
+	    // Make space for the next bit and bring it down.
+	    int currentBit  = (currentByte >> bitCounter) & 1;
+	    currentDividend = (currentDividend << 1) | currentBit;
+
+	    // If the chunk is big enough, divide; it becomes the remainder.
+	    if (getNumOfBits(currentDividend) >= getNumOfBits(generator)) {
+		currentDividend ^= generator;
+	    }
+
+	}
+	return currentDividend;
+
+    } // divideCurrentDividend ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    private static int getNumOfBits (int parameter) {
+
+	return Integer.SIZE - Integer.numberOfLeadingZeros(parameter);
+
+    } // getNumOfBits ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** The generator polynomial. */
+    private final int generator;
+
+    /** The degree of the generator. */
+    private final int degree;
+
+    /** The number of bits in a byte. */
+    private static final int BITS_PER_BYTE = DataLinkLayer.BITS_PER_BYTE;
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class BitwiseCrcEngine
+// =============================================================================
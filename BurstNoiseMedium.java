@@ -0,0 +1,348 @@
+// =============================================================================
+// IMPORTS
+
+import java.util.Random;
+// =============================================================================
+
+
+
+// =============================================================================
+/**
+ * A medium whose errors come in bursts, following the Gilbert-Elliott model.
+ * The channel is always in one of two states, good or bad, each with its own
+ * bit error probability; after every bit it moves from good to bad, or from
+ * bad to good, with fixed probabilities.  The mean length of a burst is thus
+ * the inverse of the bad-to-good probability.
+ *
+ * Rather than deciding the fate of each bit, the medium walks the chain a
+ * 64-bit word at a time.  How long the chain stays in a state, and how many
+ * clean bits come before each flip within it, are both geometric, so each is
+ * drawn in one step, as <code>LowNoiseMedium</code> draws its gaps; a word
+ * spent wholly in the good state usually costs a single draw.  The flips of a
+ * word form a mask that is XORed onto the next 64 bits on the wire.  Every
+ * word is drawn afresh, so long transfers see the chain's own statistics,
+ * not a repeating set of patterns.
+ *
+ * @file   BurstNoiseMedium.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class BurstNoiseMedium extends Medium {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The constructor, using the default transition and error probabilities
+     * and seed.
+     */
+    public BurstNoiseMedium () {
+
+	this(DEFAULT_GOOD_TO_BAD,
+	     DEFAULT_BAD_TO_GOOD,
+	     DEFAULT_GOOD_ERROR_PROBABILITY,
+	     DEFAULT_BAD_ERROR_PROBABILITY,
+	     DEFAULT_SEED);
+
+    } // BurstNoiseMedium ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The constructor.
+     *
+     * @param goodToBad            The probability, per bit, of moving from
+     *                             the good state to the bad one.
+     * @param badToGood            The probability, per bit, of moving from
+     *                             the bad state to the good one.
+     * @param goodErrorProbability The probability that a bit is flipped in
+     *                             the good state.
+     * @param badErrorProbability  The probability that a bit is flipped in
+     *                             the bad state.
+     * @param seed                 The seed for the random number generator.
+     * @throws RuntimeException if any probability is out of range.
+     */
+    public BurstNoiseMedium (double goodToBad,
+			     double badToGood,
+			     double goodErrorProbability,
+			     double badErrorProbability,
+			     long   seed) {
+
+	checkProbability(goodToBad);
+	checkProbability(badToGood);
+	checkProbability(goodErrorProbability);
+	checkProbability(badErrorProbability);
+
+	random         = new Random(seed);
+	logStayChance  = new double[] { Math.log1p(-goodToBad),
+					Math.log1p(-badToGood) };
+	logCleanChance = new double[] { Math.log1p(-goodErrorProbability),
+					Math.log1p(-badErrorProbability) };
+	state = GOOD;
+
+    } // BurstNoiseMedium ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Send a bit from one client to the other clients, flipping it if the
+     * next bit of the error stream is set.
+     *
+     * @param sender The client physical layer sending the bit.
+     * @param bit The value to be sent, where <code>false</code> sends a
+     *            <code>0</code> bit, and <code>true</code> sends a
+     *            <code>1</code> bit.
+     * @throws RuntimeException if the sender is not registered with this
+     *                          medium.
+     */
+    public void transmit (PhysicalLayer sender, boolean bit) {
+
+	// Only registered clients may send.
+	checkSender(sender);
+
+	// Deliver the bit to each client that is not the sender.
+	PhysicalLayer[] receivers = clients;
+	for (int c = 0; c < receivers.length; c += 1) {
+
+	    PhysicalLayer receiver = receivers[c];
+	    if (receiver != sender) {
+		boolean flip = nextErrorBits(1) != 0;
+		if (debug && flip) {
+		    System.out.println("BurstNoiseMedium.transmit(): Flipped bit!");
+		}
+		receiver.receive(bit ^ flip);
+	    }
+
+	}
+
+    } // transmit ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Send a sequence of packed bits from one client to the other clients.
+     * The error stream is XORed onto each receiver's share a word at a time.
+     * A receiver whose share draws only empty masks gets the sender's bits as
+     * they are; otherwise it gets a copy with the flips applied.
+     *
+     * @param sender The client physical layer sending the bits.
+     * @param bits   The bits to send.
+     * @throws RuntimeException if the sender is not registered with this
+     *                          medium.
+     */
+    public void transmit (PhysicalLayer sender, PackedBits bits) {
+
+	// Only registered clients may send.
+	checkSender(sender);
+
+	PhysicalLayer[] receivers = clients;
+	for (int c = 0; c < receivers.length; c += 1) {
+
+	    PhysicalLayer receiver = receivers[c];
+	    if (receiver == sender) {
+		continue;
+	    }
+
+	    PackedBits noisy = null;
+	    for (int i = 0; i < bits.getWordCount(); i += 1) {
+
+		int  used = Math.min(Long.SIZE, bits.getLength() - i * Long.SIZE);
+		long mask = nextErrorBits(used);
+		if (mask == 0) {
+		    continue;
+		}
+
+		// Copy only once an error actually lands.
+		if (noisy == null) {
+		    noisy = bits.copy();
+		}
+		if (debug) {
+		    System.out.println("BurstNoiseMedium.transmit(): Flipped " +
+				       Long.bitCount(mask) + " bits!");
+		}
+		noisy.xorWord(i, mask);
+
+	    }
+	    receiver.receive((noisy == null) ? bits : noisy);
+
+	}
+
+    } // transmit ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // PRIVATE METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Take the next bits of the error stream, drawing a new word as the
+     * current one runs out.
+     *
+     * @param  bits The number of bits to take, from 1 to 64.
+     * @return The bits, aligned to the top of the word, with the rest zero.
+     */
+    private long nextErrorBits (int bits) {
+
+	if (bitsLeft == 0) {
+	    refill();
+	}
+
+	// Enough left in the current word.
+	if (bits <= bitsLeft) {
+	    long taken = current & topBits(bits);
+	    current    = (bits == Long.SIZE) ? 0 : current << bits;
+	    bitsLeft  -= bits;
+	    return taken;
+	}
+
+	// Otherwise, take what is left and continue into the next word.
+	long taken = current;
+	int  got   = bitsLeft;
+	refill();
+	return taken | (nextErrorBits(bits - got) >>> got);
+
+    } // nextErrorBits ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Walk the chain across the next word, most significant bit first, and
+     * make its errors the current word.  Each bit may be flipped according to
+     * the state it is sent in, after which the chain may switch state.
+     */
+    private void refill () {
+
+	long mask = 0;
+	int  bit  = 0;
+	while (bit < Long.SIZE) {
+
+	    // The bits sent in this state, the one after which it switches
+	    // included, up to the end of the word.
+	    int stay = 1 + drawSkip(logStayChance[state]);
+	    int end  = Math.min(Long.SIZE, bit + stay);
+
+	    // The flips among them.
+	    for (int at = bit + drawSkip(logCleanChance[state]);
+		 at < end;
+		 at += 1 + drawSkip(logCleanChance[state])) {
+		mask |= Long.MIN_VALUE >>> at;
+	    }
+
+	    if (bit + stay <= Long.SIZE) {
+		state = BAD - state;
+	    }
+	    bit = end;
+
+	}
+	current  = mask;
+	bitsLeft = Long.SIZE;
+
+    } // refill ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Draw the number of failures before the first success of a geometric
+     * distribution, by inverting its CDF.  Anything past a word is as good as
+     * forever here, so the count is capped at a word's length.
+     *
+     * @param  logFailureChance The log of the probability of a failure.
+     * @return The number of failures, at most 64.
+     */
+    private int drawSkip (double logFailureChance) {
+
+	if (logFailureChance == 0.0) {
+	    return Long.SIZE;
+	} else if (logFailureChance == Double.NEGATIVE_INFINITY) {
+	    return 0;
+	}
+	double failures = Math.floor(Math.log1p(-random.nextDouble()) / logFailureChance);
+	return (failures >= Long.SIZE) ? Long.SIZE : (int)failures;
+
+    } // drawSkip ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    private static long topBits (int bits) {
+
+	return (bits == Long.SIZE) ? -1L : ~(-1L >>> bits);
+
+    } // topBits ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    private static void checkProbability (double probability) {
+
+	if (!(probability >= 0.0 && probability <= 1.0)) {
+	    throw new RuntimeException("Invalid probability " + probability);
+	}
+
+    } // checkProbability ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    private Random random;
+
+    /** The log of the probability of staying in each state for a bit. */
+    private final double[] logStayChance;
+
+    /** The log of the probability that a bit is not flipped, per state. */
+    private final double[] logCleanChance;
+
+    /** The state of the chain at the end of the current word. */
+    private int            state;
+
+    /** The unused bits of the current word, aligned to the top. */
+    private long           current;
+
+    /** The number of unused bits in the current word. */
+    private int            bitsLeft;
+
+    /** The states of the chain. */
+    private static final int GOOD = 0;
+    private static final int BAD  = 1;
+
+    // The defaults used when none are given: bursts of about ten bits, half
+    // of them flipped, roughly every five thousand bits.
+    public static final double DEFAULT_GOOD_TO_BAD            = 0.0002;
+    public static final double DEFAULT_BAD_TO_GOOD            = 0.1;
+    public static final double DEFAULT_GOOD_ERROR_PROBABILITY = 0.0;
+    public static final double DEFAULT_BAD_ERROR_PROBABILITY  = 0.5;
+    public static final long   DEFAULT_SEED                   = 5;
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class BurstNoiseMedium
+// =============================================================================
@@ -0,0 +1,288 @@
+// =============================================================================
+// IMPORTS
+
+import java.util.Arrays;
+// =============================================================================
+
+
+
+// =============================================================================
+/**
+ * A first-in, first-out buffer of primitive bytes, held in a circular array
+ * that doubles in size whenever it fills.  Bytes can be read anywhere by
+ * index, and any number can be removed from the front at once, so frames can
+ * be scanned and consumed without boxing or per-byte nodes.
+ *
+ * @file   ByteRingBuffer.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class ByteRingBuffer {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The constructor.
+     *
+     * @param initialCapacity The number of bytes to hold before growing,
+     *                        rounded up to a power of two.
+     */
+    public ByteRingBuffer (int initialCapacity) {
+
+	int capacity = Integer.highestOneBit(Math.max(initialCapacity, 2) - 1) << 1;
+	buffer = new byte[capacity];
+
+    } // ByteRingBuffer ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Add a byte to the back of the buffer.
+     *
+     * @param value The byte to add.
+     */
+    public void add (byte value) {
+
+	if (size == buffer.length) {
+	    grow(size + 1);
+	}
+	buffer[(head + size) & (buffer.length - 1)] = value;
+	size += 1;
+
+    } // add ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Add a sequence of bytes to the back of the buffer.
+     *
+     * @param data   The buffer holding the bytes to add.
+     * @param offset The index of the first byte to add.
+     * @param length The number of bytes to add.
+     */
+    public void add (byte[] data, int offset, int length) {
+
+	if (size + length > buffer.length) {
+	    grow(size + length);
+	}
+
+	// Copy in up to two pieces: to the end of the array, then wrapping.
+	int tail  = (head + size) & (buffer.length - 1);
+	int first = Math.min(length, buffer.length - tail);
+	System.arraycopy(data, offset, buffer, tail, first);
+	System.arraycopy(data, offset + first, buffer, 0, length - first);
+	size += length;
+
+    } // add ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @param  index The position of the byte, where <code>0</code> is the
+     *               front of the buffer.
+     * @return The byte at that position.
+     * @throws IndexOutOfBoundsException if there is no such byte.
+     */
+    public byte get (int index) {
+
+	if (index < 0 || index >= size) {
+	    throw new IndexOutOfBoundsException("Index " + index +
+						", size " + size);
+	}
+	return buffer[(head + index) & (buffer.length - 1)];
+
+    } // get ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Find the first occurrence of a byte at or after a given position.
+     *
+     * @param  value The byte to find.
+     * @param  from  The position at which to start looking.
+     * @return The position of the byte, or <code>-1</code> if it is absent.
+     */
+    public int indexOf (byte value, int from) {
+
+	int mask = buffer.length - 1;
+	for (int i = Math.max(from, 0); i < size; i += 1) {
+	    if (buffer[(head + i) & mask] == value) {
+		return i;
+	    }
+	}
+	return -1;
+
+    } // indexOf ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Copy bytes out of the buffer without removing them.
+     *
+     * @param from        The position of the first byte to copy.
+     * @param destination The array into which to copy.
+     * @param offset      The index in that array of the first copied byte.
+     * @param length      The number of bytes to copy.
+     * @throws IndexOutOfBoundsException if the buffer holds too few bytes.
+     */
+    public void copyTo (int from, byte[] destination, int offset, int length) {
+
+	if (from < 0 || length < 0 || from + length > size) {
+	    throw new IndexOutOfBoundsException("Range " + from + "+" + length +
+						", size " + size);
+	}
+	int start = (head + from) & (buffer.length - 1);
+	int first = Math.min(length, buffer.length - start);
+	System.arraycopy(buffer, start, destination, offset, first);
+	System.arraycopy(buffer, 0, destination, offset + first, length - first);
+
+    } // copyTo ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Remove and return the byte at the front of the buffer.
+     *
+     * @return The removed byte.
+     * @throws IndexOutOfBoundsException if the buffer is empty.
+     */
+    public byte remove () {
+
+	byte value = get(0);
+	discard(1);
+	return value;
+
+    } // remove ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Remove bytes from the front of the buffer.
+     *
+     * @param count The number of bytes to remove; if more than the buffer
+     *              holds, the buffer is emptied.
+     */
+    public void discard (int count) {
+
+	count = Math.min(count, size);
+	head  = (head + count) & (buffer.length - 1);
+	size -= count;
+
+    } // discard ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /** Remove every byte from the buffer. */
+    public void clear () {
+
+	head = 0;
+	size = 0;
+
+    } // clear ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /** @return The number of bytes in the buffer. */
+    public int size () {
+
+	return size;
+
+    } // size ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /** @return Whether the buffer holds no bytes. */
+    public boolean isEmpty () {
+
+	return size == 0;
+
+    } // isEmpty ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public String toString () {
+
+	byte[] contents = new byte[size];
+	copyTo(0, contents, 0, size);
+	return Arrays.toString(contents);
+
+    } // toString ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // PRIVATE METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Enlarge the array to hold at least the given number of bytes, moving
+     * the contents so that the front of the buffer is at index 0.
+     */
+    private void grow (int needed) {
+
+	int capacity = buffer.length;
+	while (capacity < needed) {
+	    capacity <<= 1;
+	}
+	byte[] larger = new byte[capacity];
+	copyTo(0, larger, 0, size);
+	buffer = larger;
+	head   = 0;
+
+    } // grow ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** The circular array, whose length is always a power of two. */
+    private byte[] buffer;
+
+    /** The index in the array of the front of the buffer. */
+    private int    head;
+
+    /** The number of bytes in the buffer. */
+    private int    size;
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class ByteRingBuffer
+// =============================================================================
@@ -0,0 +1,47 @@
+// =============================================================================
+/**
+ * A data link layer that frames data by Consistent Overhead Byte Stuffing.
+ * Each frame is its data and a CRC-32, with every zero byte removed, ended by
+ * a single zero byte.  Each run of up to 254 non-zero bytes is preceded by a
+ * code byte giving the distance to the next removed zero, so the overhead is
+ * at most one byte per 254, plus the delimiter, whatever the data; tag
+ * stuffing, by contrast, doubles a frame made entirely of tag bytes.
+ *
+ * This is the pipeline <code>Chunk:64+CRC:CRC-32+COBS</code>; see
+ * <code>CobsFramer</code> for the stuffing and
+ * <code>CodecDataLinkLayer</code> for the rest.
+ *
+ * @file   COBSDataLinkLayer.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class COBSDataLinkLayer extends CodecDataLinkLayer {
+// =============================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The constructor.
+     */
+    public COBSDataLinkLayer () {
+
+	super(SPEC);
+
+    } // COBSDataLinkLayer ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** Frames of at most 64 data bytes, checked by CRC-32, stuffed by COBS. */
+    public static final String SPEC = "Chunk:64+CRC:CRC-32+COBS";
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class COBSDataLinkLayer
+// =============================================================================
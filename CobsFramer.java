@@ -0,0 +1,194 @@
+// =============================================================================
+/**
+ * A framer using Consistent Overhead Byte Stuffing.  Every zero byte is
+ * removed from the content, and each run of up to 254 non-zero bytes is
+ * preceded by a code byte giving the distance to the next removed zero; a
+ * single zero byte then ends the frame.  The overhead is at most one byte
+ * per 254, plus the delimiter, whatever the content; tag stuffing, by
+ * contrast, doubles content made entirely of tag bytes.
+ *
+ * Both directions take a single pass: the encoder writes code bytes back
+ * into place as each run ends, and the decoder restores zeros as bytes
+ * arrive, so a frame is ready the moment its delimiter is.  A frame that
+ * ends mid-run is dropped.
+ *
+ * @file   CobsFramer.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class CobsFramer implements LinkFramer {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @param  length The number of bytes of content.
+     * @return The most bytes the content can take once stuffed and delimited.
+     */
+    public static int maxEncodedLength (int length) {
+
+	return length + length / MAX_RUN + 2;
+
+    } // maxEncodedLength ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public void frame (CodecBuffer in, CodecBuffer out) {
+
+	int length = in.getLength();
+	out.setLength(maxEncodedLength(length));
+	byte[] content = in.getArray();
+	byte[] array   = out.getArray();
+
+	int codeIndex = 0;
+	int at        = 1;
+	for (int i = 0; i < length; i += 1) {
+	    if (content[i] == 0) {
+		array[codeIndex] = (byte)(at - codeIndex);
+		codeIndex        = at++;
+		continue;
+	    }
+	    array[at++] = content[i];
+	    if (at - codeIndex == MAX_CODE) {
+		array[codeIndex] = (byte)MAX_CODE;
+		codeIndex        = at++;
+	    }
+	}
+	array[codeIndex] = (byte)(at - codeIndex);
+	array[at++]      = 0;
+	out.setLength(at);
+
+    } // frame ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public boolean extract (ByteRingBuffer buffer, CodecBuffer out) {
+
+	while (!buffer.isEmpty()) {
+
+	    int current = buffer.remove() & 0xff;
+	    if (current == 0) {
+		if (endFrame(out)) {
+		    return true;
+		}
+		continue;
+	    }
+
+	    if (runLeft == 0) {
+
+		// A code byte: the run before it, unless it was a full one or
+		// this is the first, ended where a zero was removed.
+		if (!firstRun && runCode != MAX_CODE) {
+		    decoded.append((byte)0);
+		}
+		firstRun = false;
+		runCode  = current;
+		runLeft  = current - 1;
+
+	    } else {
+
+		decoded.append((byte)current);
+		runLeft -= 1;
+
+	    }
+
+	}
+	return false;
+
+    } // extract ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The frame's bytes are consumed as it is extracted, so there is nothing
+     * left to drop.
+     */
+    public void release (ByteRingBuffer buffer, boolean intact) {
+
+    } // release ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public int getMaxContentLength () {
+
+	return Integer.MAX_VALUE;
+
+    } // getMaxContentLength ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // PRIVATE METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Finish the frame at a delimiter, and start afresh on the next.
+     *
+     * @return Whether the frame was whole, and its content is in the buffer.
+     */
+    private boolean endFrame (CodecBuffer out) {
+
+	boolean whole = (runLeft == 0) && !firstRun;
+	runLeft       = 0;
+	runCode       = 0;
+	firstRun      = true;
+
+	// Back-to-back delimiters are just idle line, not frames.
+	if (!whole && decoded.getLength() > 0) {
+	    System.err.println("[-] Truncated COBS frame dropped");
+	}
+	if (whole) {
+	    out.append(decoded.getArray(), 0, decoded.getLength());
+	}
+	decoded.clear();
+	return whole;
+
+    } // endFrame ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** The largest code byte, marking a run of 254 bytes with no zero after. */
+    private static final int MAX_CODE = 0xff;
+
+    /** The most non-zero bytes in a run. */
+    private static final int MAX_RUN  = MAX_CODE - 1;
+
+    /** The frame being decoded. */
+    private final CodecBuffer decoded = new CodecBuffer(64);
+
+    /** The current run's code byte, and how many of its bytes are to come. */
+    private int     runCode;
+    private int     runLeft;
+
+    /** Whether no code byte has yet arrived in the current frame. */
+    private boolean firstRun = true;
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class CobsFramer
+// =============================================================================
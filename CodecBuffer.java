@@ -0,0 +1,175 @@
+// =============================================================================
+// IMPORTS
+
+import java.util.Arrays;
+// =============================================================================
+
+
+
+// =============================================================================
+/**
+ * A growable byte buffer that the stages of a codec pipeline pass frames
+ * through.  Stages read and write the backing array directly; the buffer
+ * only keeps track of how much of it is in use, and grows it, keeping its
+ * contents, when asked for more room.  A pipeline keeps its buffers from
+ * frame to frame, so once they have grown to fit, no frame allocates.
+ *
+ * @file   CodecBuffer.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class CodecBuffer {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The constructor.
+     *
+     * @param initialCapacity The number of bytes to make room for at first.
+     */
+    public CodecBuffer (int initialCapacity) {
+
+	array = new byte[Math.max(initialCapacity, 1)];
+
+    } // CodecBuffer ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The backing array, valid only until the buffer next grows.
+     */
+    public byte[] getArray () {
+
+	return array;
+
+    } // getArray ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The number of bytes in use.
+     */
+    public int getLength () {
+
+	return length;
+
+    } // getLength ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Set the number of bytes in use, making room for them if need be.
+     *
+     * @param length The number of bytes.
+     */
+    public void setLength (int length) {
+
+	ensureCapacity(length);
+	this.length = length;
+
+    } // setLength ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Make room for at least the given number of bytes, keeping those in use.
+     *
+     * @param capacity The number of bytes.
+     */
+    public void ensureCapacity (int capacity) {
+
+	if (capacity > array.length) {
+	    array = Arrays.copyOf(array, Math.max(capacity, 2 * array.length));
+	}
+
+    } // ensureCapacity ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /** Empty the buffer, keeping its room. */
+    public void clear () {
+
+	length = 0;
+
+    } // clear ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @param value The byte to add at the end.
+     */
+    public void append (byte value) {
+
+	ensureCapacity(length + 1);
+	array[length++] = value;
+
+    } // append ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @param data   The buffer holding the bytes to add at the end.
+     * @param offset The index of the first byte to add.
+     * @param count  The number of bytes to add.
+     */
+    public void append (byte[] data, int offset, int count) {
+
+	ensureCapacity(length + count);
+	System.arraycopy(data, offset, array, length, count);
+	length += count;
+
+    } // append ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return A copy of the bytes in use.
+     */
+    public byte[] toByteArray () {
+
+	return Arrays.copyOf(array, length);
+
+    } // toByteArray ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** The bytes, of which the first <code>length</code> are in use. */
+    private byte[] array;
+
+    /** The number of bytes in use. */
+    private int    length;
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class CodecBuffer
+// =============================================================================
@@ -0,0 +1,741 @@
+// =============================================================================
+// IMPORTS
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+// =============================================================================
+
+
+
+// =============================================================================
+/**
+ * A data link layer assembled from a pipeline of codec stages, rather than
+ * written out as a subclass of its own for each combination of framing,
+ * checking and correction.  The pipeline is given as a spec: stage names,
+ * each with an optional argument after a colon, joined by plus signs in the
+ * order they apply to outgoing data.  The last must be a framer; an optional
+ * <code>Chunk</code> first cuts the data into frames of at most the given
+ * size, 64 bytes if it is left out.  No frame may grow, on its way through
+ * the stages, past what the framer can carry.  For example:
+ *
+ *     Chunk:64+CRC:CRC-32+RS:8+Interleave:8+COBS
+ *
+ * cuts the data into 64-byte frames, appends a CRC-32 to each, adds 8 bytes
+ * of Reed-Solomon parity per block, interleaves the result and frames it by
+ * COBS.  Incoming frames pass back through the same stages in reverse, and
+ * are dropped by the first stage that rejects them.  See
+ * <code>LinkCodec.create()</code> and <code>LinkFramer.create()</code> for
+ * the stages.
+ *
+ * In place of <code>Chunk</code>, <code>Coalesce:size,millis</code> packs
+ * the data of successive <code>send()</code> calls into shared frames of up
+ * to the given size, so that chatty clients do not pay a frame's overhead
+ * for every few bytes.  Each message becomes a record of its length, as a
+ * base-128 varint, and its bytes; one too long for the room left in a frame
+ * is split into records across frames.  A frame goes out once it is full, or
+ * once its first message has waited the given number of milliseconds (10 by
+ * default), or on <code>flush()</code>.  The receiver, built from the same
+ * spec, hands each record to its client separately.
+ *
+ * Stages hand frames to one another in two buffers per direction, reused
+ * from frame to frame, so sending a steady stream of frames allocates
+ * nothing in the stages or the framing.  Receiving still allocates twice per
+ * frame: the deframer's copy of the payload and the array delivered to the
+ * client.  On a synchronous medium the physical layer reuses its buffers
+ * too; see <code>Medium.transmit()</code>.  Each direction has its own stage
+ * instances, so sending and receiving may happen on different threads.
+ *
+ * @file   CodecDataLinkLayer.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class CodecDataLinkLayer extends DataLinkLayer {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The constructor.
+     *
+     * @param  spec The stages, as described above.
+     * @throws RuntimeException if the spec is malformed, or names an unknown
+     *                          stage.
+     */
+    public CodecDataLinkLayer (String spec) {
+
+	this.spec = spec;
+	String[] stages = spec.split("\\" + STAGE_SEPARATOR);
+
+	// An optional chunk size comes first.
+	int    first            = 0;
+	int    chunkSize        = DEFAULT_PAYLOAD_SIZE;
+	String coalesceArgument = null;
+	long   deadline         = DEFAULT_FLUSH_DEADLINE;
+	if (name(stages[0]).equals("Chunk")) {
+	    String argument = argument(stages[0]);
+	    if (argument == null) {
+		throw new RuntimeException("Chunk needs a size in " + spec);
+	    }
+	    chunkSize = Integer.parseInt(argument);
+	    first = 1;
+	} else if (name(stages[0]).equals("Coalesce")) {
+	    String argument = argument(stages[0]);
+	    if (argument == null) {
+		throw new RuntimeException("Coalesce needs a size in " + spec);
+	    }
+	    int comma = argument.indexOf(',');
+	    if (comma < 0) {
+		coalesceArgument = argument;
+	    } else {
+		coalesceArgument = argument.substring(0, comma);
+		deadline         = Long.parseLong(argument.substring(comma + 1));
+	    }
+	    first = 1;
+	}
+	if (first >= stages.length) {
+	    throw new RuntimeException("No framer in " + spec);
+	}
+
+	// Then the codec stages, then the framer, once for each direction.
+	List<LinkCodec> encoders = new ArrayList<LinkCodec>();
+	List<LinkCodec> decoders = new ArrayList<LinkCodec>();
+	for (int i = first; i < stages.length - 1; i += 1) {
+	    encoders.add(LinkCodec.create(name(stages[i]), argument(stages[i])));
+	    decoders.add(LinkCodec.create(name(stages[i]), argument(stages[i])));
+	}
+	this.encoders = encoders.toArray(new LinkCodec[0]);
+	this.decoders = decoders.toArray(new LinkCodec[0]);
+	String last   = stages[stages.length - 1];
+	sendFramer    = LinkFramer.create(name(last), argument(last));
+	receiveFramer = LinkFramer.create(name(last), argument(last));
+
+	// Only now can sizes be checked against the stages.
+	setPayloadSize(chunkSize);
+	if (coalesceArgument != null) {
+	    setCoalescing(Integer.parseInt(coalesceArgument), deadline);
+	}
+
+    } // CodecDataLinkLayer ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The spec from which the pipeline was built.
+     */
+    public String getSpec () {
+
+	return spec;
+
+    } // getSpec ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @param  payloadSize The most data bytes per frame.
+     * @throws RuntimeException if the size is not positive, or a frame of
+     *                          that size could outgrow the framer.
+     */
+    public void setPayloadSize (int payloadSize) {
+
+	if (payloadSize < 1 || !fitsFramer(payloadSize)) {
+	    throw new RuntimeException("Invalid payload size " + payloadSize +
+				       " for " + spec);
+	}
+	this.payloadSize = payloadSize;
+
+    } // setPayloadSize ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Pack the data of successive sends into shared frames, as described
+     * above, flushing any that is already waiting.
+     *
+     * @param  frameSize      The most bytes of records per frame, at least
+     *                        two, or <code>0</code> to stop coalescing.
+     * @param  deadlineMillis The longest a message may wait for others.
+     * @throws RuntimeException if the size is negative, or too large for the
+     *                          record lengths or the framer, or the deadline
+     *                          is negative.
+     */
+    public void setCoalescing (int frameSize, long deadlineMillis) {
+
+	if (frameSize < 0 ||
+	    (frameSize > 0 && frameSize < MIN_RECORD_LENGTH) ||
+	    frameSize > MAX_COALESCED_LENGTH ||
+	    !fitsFramer(frameSize)) {
+	    throw new RuntimeException("Invalid coalescing size " + frameSize);
+	}
+	if (deadlineMillis < 0) {
+	    throw new RuntimeException("Invalid flush deadline " + deadlineMillis);
+	}
+	sendLock.lock();
+	try {
+	    flush();
+	    coalesceSize   = frameSize;
+	    deadlineNanos  = TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+	} finally {
+	    sendLock.unlock();
+	}
+
+    } // setCoalescing ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Send any coalesced messages now, without waiting for the frame to fill
+     * or its deadline to pass.
+     */
+    public void flush () {
+
+	sendLock.lock();
+	try {
+	    if (flushTask != null) {
+		flushTask.cancel(false);
+		flushTask = null;
+	    }
+	    if (pending.getLength() > 0) {
+		CodecBuffer frame = encode(pending.getArray(), 0, pending.getLength());
+		transmit(frame.getArray(), 0, frame.getLength());
+		pending.clear();
+	    }
+	} finally {
+	    sendLock.unlock();
+	}
+
+    } // flush ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Send a sequence of bytes, a frame at a time, or add it to the frames
+     * being coalesced.
+     *
+     * @param data The sequence of bytes to send.
+     */
+    public void send (byte[] data) {
+
+	sendLock.lock();
+	try {
+	    if (coalesceSize > 0) {
+		coalesce(data);
+	    } else {
+		sendChunks(data);
+	    }
+	} finally {
+	    sendLock.unlock();
+	}
+
+    } // send ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // PROTECTED METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @param  index The position of a codec stage in the spec, not counting
+     *               any <code>Chunk</code> or <code>Coalesce</code>.
+     * @return The stage's instance for outgoing frames.
+     */
+    protected LinkCodec getEncoder (int index) {
+
+	return encoders[index];
+
+    } // getEncoder ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @param  index The position of a codec stage, as for
+     *               <code>getEncoder()</code>.
+     * @return The stage's instance for incoming frames.
+     */
+    protected LinkCodec getDecoder (int index) {
+
+	return decoders[index];
+
+    } // getDecoder ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Replace a codec stage, in both directions.  Both ends of a link must
+     * make the same change, before any frames cross it.
+     *
+     * @param  index   The position of the stage, as for
+     *                 <code>getEncoder()</code>.
+     * @param  encoder The new stage's instance for outgoing frames.
+     * @param  decoder The new stage's instance for incoming frames.
+     * @throws RuntimeException if frames of the payload or coalescing size
+     *                          could then outgrow the framer.
+     */
+    protected void setStage (int index, LinkCodec encoder, LinkCodec decoder) {
+
+	sendLock.lock();
+	try {
+	    LinkCodec previous = encoders[index];
+	    encoders[index] = encoder;
+	    if (!fitsFramer(Math.max(payloadSize, coalesceSize))) {
+		encoders[index] = previous;
+		throw new RuntimeException("Frames too long for " +
+					   encoder.getClass().getName() + " in " + spec);
+	    }
+	    decoders[index] = decoder;
+	} finally {
+	    sendLock.unlock();
+	}
+
+    } // setStage ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Embed a raw sequence of bytes into a single frame.
+     *
+     * @param  data The raw sequence of bytes to be framed.
+     * @return A complete frame.
+     */
+    protected byte[] createFrame (byte[] data) {
+
+	sendLock.lock();
+	try {
+	    return encode(data, 0, data.length).toByteArray();
+	} finally {
+	    sendLock.unlock();
+	}
+
+    } // createFrame ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Let the framer look for a frame among the buffered bytes, pass any it
+     * finds back through the stages, and tell the framer whether the frame
+     * survived.  When coalescing, the frame's records are handed to the
+     * client here, one at a time.
+     *
+     * @return The data of a frame that survived every stage, unless its
+     *         records were delivered already; <code>null</code> otherwise.
+     */
+    protected byte[] processFrame () {
+
+	while (true) {
+
+	    CodecBuffer in  = receiveBuffers[0];
+	    CodecBuffer out = receiveBuffers[1];
+	    in.clear();
+	    if (!receiveFramer.extract(byteBuffer, in)) {
+		return null;
+	    }
+
+	    boolean intact = true;
+	    for (int i = decoders.length - 1; i >= 0 && intact; i -= 1) {
+		out.clear();
+		intact = decoders[i].decode(in, out);
+		if (intact) {
+		    CodecBuffer swap = in;
+		    in  = out;
+		    out = swap;
+		} else {
+		    System.err.println("[-] Frame dropped by " +
+				       decoders[i].getClass().getName());
+		}
+	    }
+	    if (intact && coalesceSize > 0 && !wellFormed(in)) {
+		System.err.println("[-] Frame dropped for malformed records");
+		intact = false;
+	    }
+	    receiveFramer.release(byteBuffer, intact);
+	    if (!intact) {
+		continue;
+	    }
+	    if (coalesceSize == 0) {
+		return in.toByteArray();
+	    }
+	    deliverRecords(in);
+	    return null;
+
+	}
+
+    } // processFrame ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // PRIVATE METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Send a sequence of bytes in frames of at most the payload size.  The
+     * caller holds the send lock.
+     */
+    private void sendChunks (byte[] data) {
+
+	for (int offset = 0; offset < data.length; offset += payloadSize) {
+	    CodecBuffer frame = encode(data, offset, Math.min(payloadSize, data.length - offset));
+	    transmit(frame.getArray(), 0, frame.getLength());
+	}
+
+    } // sendChunks ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return Whether a frame of the given length, however the stages
+     *         transform it, still fits in what the framer can carry.
+     */
+    private boolean fitsFramer (int length) {
+
+	long encoded = length;
+	for (LinkCodec encoder : encoders) {
+	    encoded = encoder.getMaxEncodedLength((int)Math.min(encoded, Integer.MAX_VALUE));
+	}
+	return encoded <= sendFramer.getMaxContentLength();
+
+    } // fitsFramer ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Add a sequence of bytes to the frames being coalesced, as records,
+     * sending each frame that fills, and arranging for the last to go out by
+     * its deadline.  The caller holds the send lock.
+     */
+    private void coalesce (byte[] data) {
+
+	int offset = 0;
+	while (offset < data.length) {
+	    int room  = coalesceSize - pending.getLength();
+	    int count = Math.min(data.length - offset, room - varintLength(room));
+	    if (count < 1) {
+		flush();
+		continue;
+	    }
+	    appendVarint(pending, count);
+	    pending.append(data, offset, count);
+	    offset += count;
+	}
+
+	// Send a frame with no room for another record now; otherwise, let it
+	// wait for more, but no longer than the deadline.
+	if (coalesceSize - pending.getLength() < MIN_RECORD_LENGTH || deadlineNanos == 0) {
+	    flush();
+	} else if (pending.getLength() > 0 && flushTask == null) {
+	    flushTask = FLUSH_TIMER.schedule(this::flush, deadlineNanos, TimeUnit.NANOSECONDS);
+	}
+
+    } // coalesce ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return Whether every record of a coalesced frame is well formed, so
+     *         that a malformed frame can be dropped before any of its
+     *         records is delivered.
+     */
+    private static boolean wellFormed (CodecBuffer frame) {
+
+	byte[] array  = frame.getArray();
+	int    length = frame.getLength();
+	for (int at = 0; at < length; at = recordEnd(array, at, length)) {
+	    if (recordEnd(array, at, length) < 0) {
+		return false;
+	    }
+	}
+	return true;
+
+    } // wellFormed ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Hand each record of a well formed coalesced frame to the client.
+     */
+    private void deliverRecords (CodecBuffer frame) {
+
+	byte[] array  = frame.getArray();
+	int    length = frame.getLength();
+	for (int at = 0; at < length; ) {
+	    int end   = recordEnd(array, at, length);
+	    int start = at;
+	    while (array[start] < 0) {
+		start += 1;
+	    }
+	    client.receive(Arrays.copyOfRange(array, start + 1, end));
+	    at = end;
+	}
+
+    } // deliverRecords ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The index just past the record starting at the given index, or
+     *         <code>-1</code> if its length is malformed or overruns the
+     *         frame.
+     */
+    private static int recordEnd (byte[] array, int at, int length) {
+
+	int count = 0;
+	for (int shift = 0; ; shift += VARINT_BITS) {
+	    if (at >= length || shift > MAX_VARINT_SHIFT) {
+		return -1;
+	    }
+	    byte next = array[at++];
+	    count |= (next & VARINT_MASK) << shift;
+	    if (next >= 0) {
+		break;
+	    }
+	}
+	return (count < 1 || count > length - at) ? -1 : at + count;
+
+    } // recordEnd ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Append a value as a base-128 varint, low bits first, with the top bit
+     * of every byte but the last set.
+     */
+    private static void appendVarint (CodecBuffer buffer, int value) {
+
+	while (value > VARINT_MASK) {
+	    buffer.append((byte)(value | ~VARINT_MASK));
+	    value >>>= VARINT_BITS;
+	}
+	buffer.append((byte)value);
+
+    } // appendVarint ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The number of bytes a value takes as a varint.
+     */
+    private static int varintLength (int value) {
+
+	int length = 1;
+	while (value > VARINT_MASK) {
+	    value >>>= VARINT_BITS;
+	    length += 1;
+	}
+	return length;
+
+    } // varintLength ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The timer shared by every layer for coalescing deadlines, whose
+     *         one daemon thread leaves no cancelled tasks behind.
+     */
+    private static ScheduledThreadPoolExecutor newFlushTimer () {
+
+	ScheduledThreadPoolExecutor timer =
+	    new ScheduledThreadPoolExecutor(1, (Runnable task) -> {
+		    Thread thread = new Thread(task, "CodecDataLinkLayer-flush");
+		    thread.setDaemon(true);
+		    return thread;
+		});
+	timer.setRemoveOnCancelPolicy(true);
+	return timer;
+
+    } // newFlushTimer ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Pass some data through the stages and the framer.
+     *
+     * @return The buffer holding the frame, valid until the next call.
+     */
+    private CodecBuffer encode (byte[] data, int offset, int length) {
+
+	CodecBuffer in  = sendBuffers[0];
+	CodecBuffer out = sendBuffers[1];
+	in.clear();
+	in.append(data, offset, length);
+	for (int i = 0; i < encoders.length; i += 1) {
+	    out.clear();
+	    encoders[i].encode(in, out);
+	    CodecBuffer swap = in;
+	    in  = out;
+	    out = swap;
+	}
+	out.clear();
+	sendFramer.frame(in, out);
+	return out;
+
+    } // encode ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The name of a stage in the spec, without its argument.
+     */
+    private static String name (String stage) {
+
+	int colon = stage.indexOf(ARGUMENT_SEPARATOR);
+	return (colon < 0) ? stage : stage.substring(0, colon);
+
+    } // name ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The argument of a stage in the spec, or <code>null</code> if it
+     *         has none.
+     */
+    private static String argument (String stage) {
+
+	int colon = stage.indexOf(ARGUMENT_SEPARATOR);
+	return (colon < 0) ? null : stage.substring(colon + 1);
+
+    } // argument ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** The character that joins the stages in a spec. */
+    public static final char STAGE_SEPARATOR    = '+';
+
+    /** The character that separates a stage's name from its argument. */
+    public static final char ARGUMENT_SEPARATOR = ':';
+
+    /** The initial size of the buffers between stages. */
+    private static final int INITIAL_BUFFER_CAPACITY = 256;
+
+    /** The spec from which the pipeline was built. */
+    private final String spec;
+
+    /** The stages, in the order they apply to outgoing data, for each
+     *  direction. */
+    private final LinkCodec[] encoders;
+    private final LinkCodec[] decoders;
+
+    /** The framers for each direction. */
+    private final LinkFramer  sendFramer;
+    private final LinkFramer  receiveFramer;
+
+    /** The buffers the stages pass frames through, for each direction. */
+    private final CodecBuffer[] sendBuffers = {
+	new CodecBuffer(INITIAL_BUFFER_CAPACITY),
+	new CodecBuffer(INITIAL_BUFFER_CAPACITY)
+    };
+    private final CodecBuffer[] receiveBuffers = {
+	new CodecBuffer(INITIAL_BUFFER_CAPACITY),
+	new CodecBuffer(INITIAL_BUFFER_CAPACITY)
+    };
+
+    /** The most data bytes per frame. */
+    private int payloadSize;
+
+    /** The most bytes of records per coalesced frame, or <code>0</code> when
+     *  not coalescing. */
+    private int  coalesceSize;
+
+    /** The longest a coalesced message may wait for others. */
+    private long deadlineNanos;
+
+    /** The records waiting to go out in the next coalesced frame. */
+    private final CodecBuffer pending = new CodecBuffer(INITIAL_BUFFER_CAPACITY);
+
+    /** The flush due at the deadline of the waiting records, if any. */
+    private ScheduledFuture<?> flushTask;
+
+    /** Held while sending, since deadline flushes come from the timer's
+     *  thread. */
+    private final ReentrantLock sendLock = new ReentrantLock();
+
+    /** The most data bytes per frame when the spec gives no chunk size. */
+    public static final int DEFAULT_PAYLOAD_SIZE = 64;
+
+    /** The default deadline for coalesced messages, in milliseconds. */
+    public static final long DEFAULT_FLUSH_DEADLINE = 10;
+
+    /** The largest coalesced frame, whose record lengths fit three varint
+     *  bytes. */
+    private static final int MAX_COALESCED_LENGTH = 1 << 16;
+
+    /** The varint layout: seven bits of value per byte. */
+    private static final int VARINT_BITS      = 7;
+    private static final int VARINT_MASK      = 0x7f;
+    private static final int MAX_VARINT_SHIFT = 2 * VARINT_BITS;
+
+    /** The smallest record: a one-byte length and one byte of data. */
+    private static final int MIN_RECORD_LENGTH = 2;
+
+    /** The timer that flushes coalesced frames at their deadlines. */
+    private static final ScheduledThreadPoolExecutor FLUSH_TIMER = newFlushTimer();
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class CodecDataLinkLayer
+// =============================================================================
@@ -0,0 +1,249 @@
+// =============================================================================
+// IMPORTS
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Checksum;
+// =============================================================================
+
+
+
+// =============================================================================
+/**
+ * A codec stage that appends a CRC from the catalog to each frame, most
+ * significant byte first, and drops incoming frames whose CRC does not
+ * match.  Optionally, a frame whose CRC is off by what a single flipped bit
+ * would leave has that bit flipped back instead; see
+ * <code>SyndromeTable</code>.
+ *
+ * @file   CrcCodec.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class CrcCodec implements LinkCodec {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The constructor.
+     *
+     * @param name The catalog name of the CRC, as for
+     *             <code>CrcSpec.forName()</code>.
+     */
+    public CrcCodec (String name) {
+
+	spec     = CrcSpec.forName(name);
+	checksum = spec.newChecksum();
+	crcBytes = spec.getNumOfBytes();
+
+    } // CrcCodec ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Correct single-bit errors instead of dropping the frame.  An error of
+     * several bits can leave the same CRC as a single one and be "corrected"
+     * wrongly, which is far rarer the wider the CRC; with CRC-32 it is about
+     * one in 2^32 / (frame bits).
+     *
+     * @param enabled Whether to correct single-bit errors.
+     */
+    public void setErrorCorrection (boolean enabled) {
+
+	corrector = enabled ? new SyndromeTable(this::buildSyndromes) : null;
+
+    } // setErrorCorrection ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The number of frames received with a single-bit error that was
+     *         corrected.
+     */
+    public long getCorrectedFrames () {
+
+	return correctedFrames;
+
+    } // getCorrectedFrames ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public void encode (CodecBuffer in, CodecBuffer out) {
+
+	int length = in.getLength();
+	checksum.reset();
+	checksum.update(in.getArray(), 0, length);
+	long crc = checksum.getValue();
+
+	out.setLength(length + crcBytes);
+	byte[] array = out.getArray();
+	System.arraycopy(in.getArray(), 0, array, 0, length);
+	for (int i = 0; i < crcBytes; i += 1) {
+	    array[length + i] = (byte)(crc >>> ((crcBytes - 1 - i) * DataLinkLayer.BITS_PER_BYTE));
+	}
+
+    } // encode ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public boolean decode (CodecBuffer in, CodecBuffer out) {
+
+	int length = in.getLength() - crcBytes;
+	if (length < 0) {
+	    return false;
+	}
+	byte[] array    = in.getArray();
+	long   syndrome = syndrome(array, length);
+	if (syndrome != 0 && !correct(array, length, syndrome)) {
+	    return false;
+	}
+	out.append(array, 0, length);
+	return true;
+
+    } // decode ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public int getMaxEncodedLength (int length) {
+
+	return length + crcBytes;
+
+    } // getMaxEncodedLength ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // PRIVATE METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The CRC of the data XORed with the one appended to it, which is
+     *         <code>0</code> for an intact frame.
+     */
+    private long syndrome (byte[] array, int length) {
+
+	checksum.reset();
+	checksum.update(array, 0, length);
+	long appended = 0;
+	for (int i = length; i < length + crcBytes; i += 1) {
+	    appended = (appended << DataLinkLayer.BITS_PER_BYTE) | (array[i] & 0xff);
+	}
+	return checksum.getValue() ^ appended;
+
+    } // syndrome ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Flip back the single bit the syndrome points to, if there is one, and
+     * check the frame again, so that a table slip can never pass a frame
+     * that fails its CRC.
+     *
+     * @return Whether the frame is now intact.
+     */
+    private boolean correct (byte[] array, int length, long syndrome) {
+
+	if (corrector == null) {
+	    return false;
+	}
+	int position = corrector.locate(length + crcBytes, syndrome);
+	if (position < 0) {
+	    return false;
+	}
+	SyndromeTable.flipBit(array, position);
+	if (syndrome(array, length) != 0) {
+	    SyndromeTable.flipBit(array, position);
+	    return false;
+	}
+	correctedFrames += 1;
+	System.err.println("[+] Corrected a single-bit error; CRC was off by " + syndrome);
+	return true;
+
+    } // correct ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Build the syndromes for frames of one length.  A catalog CRC is
+     * affine, so a flip in the data changes it by the CRC of the flip alone,
+     * less that of all zeros; a flip in the appended CRC changes just that
+     * bit of it.
+     */
+    private Map<Long, Integer> buildSyndromes (int frameLength) {
+
+	int      dataLength = frameLength - crcBytes;
+	Checksum scratch    = spec.newChecksum();
+	byte[]   pattern    = new byte[dataLength];
+	scratch.update(pattern, 0, dataLength);
+	long zeros = scratch.getValue();
+
+	Map<Long, Integer> table    = new HashMap<Long, Integer>();
+	int                dataBits = dataLength * DataLinkLayer.BITS_PER_BYTE;
+	for (int position = 0; position < dataBits; position += 1) {
+	    SyndromeTable.flipBit(pattern, position);
+	    scratch.reset();
+	    scratch.update(pattern, 0, dataLength);
+	    SyndromeTable.add(table, scratch.getValue() ^ zeros, position);
+	    SyndromeTable.flipBit(pattern, position);
+	}
+	int crcBits = crcBytes * DataLinkLayer.BITS_PER_BYTE;
+	for (int bit = 0; bit < crcBits; bit += 1) {
+	    SyndromeTable.add(table, 1L << (crcBits - 1 - bit), dataBits + bit);
+	}
+	return table;
+
+    } // buildSyndromes ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** The CRC's parameters. */
+    private final CrcSpec  spec;
+
+    /** The CRC computation. */
+    private final Checksum checksum;
+
+    /** The number of bytes the CRC takes. */
+    private final int      crcBytes;
+
+    /** The single-bit corrector, or <code>null</code> if not correcting. */
+    private SyndromeTable  corrector;
+
+    /** The number of frames corrected. */
+    private volatile long  correctedFrames;
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class CrcCodec
+// =============================================================================
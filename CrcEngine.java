@@ -0,0 +1,115 @@
+// =============================================================================
+/**
+ * Divides byte sequences by a CRC generator and returns the remainder.  Every
+ * engine for a given generator returns the same remainders; they differ only
+ * in how much work they do per byte.
+ *
+ * @file   CrcEngine.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public interface CrcEngine {
+// =============================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Create the requested engine type for the given generator.
+     *
+     * @param  type      One of <code>Bitwise</code>, <code>Table</code>,
+     *                   <code>Slicing8</code> or <code>Slicing16</code>.
+     * @param  generator The generator polynomial, including its leading term.
+     * @return The engine.
+     * @throws RuntimeException if the type is unknown.
+     */
+    public static CrcEngine create (String type, int generator) {
+
+	if (type.equals("Bitwise")) {
+	    return new BitwiseCrcEngine(generator);
+	} else if (type.equals("Table")) {
+	    return TableCrcEngine.forGenerator(generator);
+	} else if (type.equals("Slicing8")) {
+	    return SlicingCrcEngine.forGenerator(generator, 8);
+	} else if (type.equals("Slicing16")) {
+	    return SlicingCrcEngine.forGenerator(generator, 16);
+	}
+	throw new RuntimeException("Unknown CRC engine type " + type);
+
+    } // create ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Pick the fastest engine for frames of about the given size.  Slicing
+     * only pays for its larger tables once a frame holds several slices.
+     *
+     * @param  generator The generator polynomial, including its leading term.
+     * @param  frameSize The number of bytes typically divided at once.
+     * @return The engine.
+     */
+    public static CrcEngine forFrameSize (int generator, int frameSize) {
+
+	if (frameSize >= 64) {
+	    return create("Slicing16", generator);
+	} else if (frameSize >= 24) {
+	    return create("Slicing8", generator);
+	}
+	return create("Table", generator);
+
+    } // forFrameSize ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Divide a sequence of bytes by the generator and return the remainder.
+     * Bits are taken from most to least significant.  Only the top
+     * <code>lastByteBits</code> bits of the final byte take part in the
+     * division.
+     *
+     * @param  data         The buffer holding the bytes to divide.
+     * @param  offset       The index of the first byte to divide.
+     * @param  length       The number of bytes to divide.
+     * @param  lastByteBits The number of significant bits in the final byte.
+     * @return The remainder of the division.
+     */
+    public int remainder (byte[] data, int offset, int length, int lastByteBits);
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Continue a division by one more byte, so that a remainder can be
+     * computed while the bytes are being handled for some other purpose.
+     * Starting from <code>0</code> and updating with each byte in turn gives
+     * the same result as <code>remainder()</code> over all of them.
+     *
+     * @param  remainder       The remainder so far.
+     * @param  value           The next byte.
+     * @param  significantBits The number of upper bits of the byte that take
+     *                         part in the division.
+     * @return The remainder after that byte.
+     */
+    public int update (int remainder, byte value, int significantBits);
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The degree of the generator, which is the number of bits in
+     *         each remainder.
+     */
+    public int getDegree ();
+    // =========================================================================
+
+
+
+// =============================================================================
+} // interface CrcEngine
+// =============================================================================
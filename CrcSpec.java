@@ -0,0 +1,235 @@
+// =============================================================================
+// IMPORTS
+
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+// =============================================================================
+
+
+
+// =============================================================================
+/**
+ * The parameters of a CRC algorithm in the Rocksoft model: width, generator
+ * polynomial (without its implicit leading term), initial register value,
+ * whether input bytes and the output are bit-reflected, and the value XORed
+ * into the result.  A catalog of common algorithms is provided, each with
+ * the check value it produces for the ASCII string "123456789".
+ *
+ * @file   CrcSpec.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class CrcSpec {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // CATALOG
+    // =========================================================================
+
+    /** CRC-8 (SMBus). */
+    public static final CrcSpec CRC_8 =
+	new CrcSpec("CRC-8", 8, 0x07L, 0x00L, false, false, 0x00L, 0xF4L);
+
+    /** CRC-16/CCITT-FALSE: the CCITT polynomial, register preset to ones. */
+    public static final CrcSpec CRC_16_CCITT =
+	new CrcSpec("CRC-16/CCITT", 16, 0x1021L, 0xFFFFL, false, false, 0x0000L,
+		    0x29B1L);
+
+    /** CRC-32 as used by Ethernet, zip and PNG. */
+    public static final CrcSpec CRC_32 =
+	new CrcSpec("CRC-32", 32, 0x04C11DB7L, 0xFFFFFFFFL, true, true,
+		    0xFFFFFFFFL, 0xCBF43926L);
+
+    /** CRC-32C (Castagnoli) as used by iSCSI and SCTP. */
+    public static final CrcSpec CRC_32C =
+	new CrcSpec("CRC-32C", 32, 0x1EDC6F41L, 0xFFFFFFFFL, true, true,
+		    0xFFFFFFFFL, 0xE3069283L);
+
+    /** CRC-64/ECMA-182. */
+    public static final CrcSpec CRC_64_ECMA =
+	new CrcSpec("CRC-64/ECMA", 64, 0x42F0E1EBA9EA3693L, 0L, false, false,
+		    0L, 0x6C40DF5F0B497347L);
+
+    /** Every algorithm in the catalog. */
+    private static final CrcSpec[] catalog = {
+	CRC_8, CRC_16_CCITT, CRC_32, CRC_32C, CRC_64_ECMA
+    };
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Look up a catalog algorithm by name.
+     *
+     * @param  name The name of the algorithm, such as <code>CRC-32</code>.
+     * @return The algorithm's parameters.
+     * @throws RuntimeException if no catalog algorithm has that name.
+     */
+    public static CrcSpec forName (String name) {
+
+	for (CrcSpec spec : catalog) {
+	    if (spec.name.equalsIgnoreCase(name)) {
+		return spec;
+	    }
+	}
+	throw new RuntimeException("Unknown CRC algorithm " + name);
+
+    } // forName ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The constructor.
+     *
+     * @param name   The name of the algorithm.
+     * @param width  The number of bits in the CRC, from 1 to 64.
+     * @param poly   The generator polynomial without its leading term.
+     * @param init   The initial register value.
+     * @param refIn  Whether each input byte is bit-reflected.
+     * @param refOut Whether the final register is bit-reflected.
+     * @param xorOut The value XORed into the final register.
+     * @param check  The CRC of the ASCII string "123456789".
+     * @throws RuntimeException if the width is out of range.
+     */
+    public CrcSpec (String  name,
+		    int     width,
+		    long    poly,
+		    long    init,
+		    boolean refIn,
+		    boolean refOut,
+		    long    xorOut,
+		    long    check) {
+
+	if (width < 1 || width > Long.SIZE) {
+	    throw new RuntimeException("Invalid CRC width " + width);
+	}
+	this.name   = name;
+	this.width  = width;
+	this.poly   = poly;
+	this.init   = init;
+	this.refIn  = refIn;
+	this.refOut = refOut;
+	this.xorOut = xorOut;
+	this.check  = check;
+
+    } // CrcSpec ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Return a fresh checksum that computes this algorithm.  Standard CRC-32
+     * and CRC-32C are handed to <code>java.util.zip</code>, whose classes the
+     * JIT compiles into hardware CRC instructions; every other algorithm
+     * falls back to the table engine.
+     *
+     * @return The checksum.
+     */
+    public Checksum newChecksum () {
+
+	if (sameAlgorithmAs(CRC_32)) {
+	    return new CRC32();
+	} else if (sameAlgorithmAs(CRC_32C)) {
+	    return new CRC32C();
+	}
+	return new RocksoftCrcEngine(this);
+
+    } // newChecksum ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Determine whether this and another spec compute the same CRC,
+     * regardless of their names.
+     *
+     * @param  other The spec to compare against.
+     * @return <code>true</code> if every parameter matches.
+     */
+    public boolean sameAlgorithmAs (CrcSpec other) {
+
+	return (width  == other.width)  &&
+	       (poly   == other.poly)   &&
+	       (init   == other.init)   &&
+	       (refIn  == other.refIn)  &&
+	       (refOut == other.refOut) &&
+	       (xorOut == other.xorOut);
+
+    } // sameAlgorithmAs ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The number of bytes needed to carry a CRC of this width.
+     */
+    public int getNumOfBytes () {
+
+	return (width + BITS_PER_BYTE - 1) / BITS_PER_BYTE;
+
+    } // getNumOfBytes ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public String toString () {
+
+	return name;
+
+    } // toString ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** The name of the algorithm. */
+    public final String  name;
+
+    /** The number of bits in the CRC. */
+    public final int     width;
+
+    /** The generator polynomial without its leading term. */
+    public final long    poly;
+
+    /** The initial register value. */
+    public final long    init;
+
+    /** Whether each input byte is bit-reflected. */
+    public final boolean refIn;
+
+    /** Whether the final register is bit-reflected. */
+    public final boolean refOut;
+
+    /** The value XORed into the final register. */
+    public final long    xorOut;
+
+    /** The CRC of the ASCII string "123456789". */
+    public final long    check;
+
+    /** The number of bits in a byte. */
+    private static final int BITS_PER_BYTE = DataLinkLayer.BITS_PER_BYTE;
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class CrcSpec
+// =============================================================================
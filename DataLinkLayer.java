@@ -1,8 +1,6 @@
 // =============================================================================
 // IMPORTS
 
-import java.util.LinkedList;
-import java.util.Queue;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 // =============================================================================
@@ -35,7 +33,10 @@ public abstract class DataLinkLayer {
     /**
      * Create the requested data link layer type and return it.
      *
-     * @param  type          The subclass of which to create an instance.
+     * @param  type          The subclass of which to create an instance, or a
+     *                       pipeline spec of stages joined by
+     *                       <code>+</code>, as described in
+     *                       <code>CodecDataLinkLayer</code>.
      * @param  physicalLayer The physical layer by which to communicate.
      * @param  host          The host for which this layer is communicating.
      * @return The newly created data link layer.
@@ -51,6 +52,41 @@ public abstract class DataLinkLayer {
 	    throw new RuntimeException("Null physical layer");
 	}
 	
+	// A pipeline spec builds its stack directly; anything else names a
+	// subclass.
+	DataLinkLayer dataLinkLayer = null;
+	if (type.indexOf(CodecDataLinkLayer.STAGE_SEPARATOR) >= 0) {
+	    dataLinkLayer = new CodecDataLinkLayer(type);
+	} else {
+	    dataLinkLayer = instantiate(type);
+	}
+
+	// Register this new data link layer with the physical layer.
+	dataLinkLayer.physicalLayer = physicalLayer;
+	physicalLayer.register(dataLinkLayer);
+	dataLinkLayer.register(host);
+	
+	// Create incoming buffer space.
+	dataLinkLayer.bitBuffer  = 0;
+	dataLinkLayer.bitCount   = 0;
+	dataLinkLayer.byteBuffer = new ByteRingBuffer(INITIAL_BUFFER_CAPACITY);
+	return dataLinkLayer;
+
+    } // create ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Create an instance of a subclass by name.
+     *
+     * @param  type The subclass of which to create an instance.
+     * @return The newly created data link layer.
+     * @throws RuntimeException if the given type is not a valid subclass.
+     */
+    private static DataLinkLayer instantiate (String type) {
+
 	// Look up the class by name.
 	String   className          = type + "DataLinkLayer";
 	Class<?> dataLinkLayerClass = null;
@@ -82,19 +118,9 @@ public abstract class DataLinkLayer {
 	    throw new RuntimeException(className +
 				       " is not a subclass of DataLinkLayer");
 	}
-
-
-	// Register this new data link layer with the physical layer.
-	dataLinkLayer.physicalLayer = physicalLayer;
-	physicalLayer.register(dataLinkLayer);
-	dataLinkLayer.register(host);
-	
-	// Create incoming buffer space.
-	dataLinkLayer.bitBuffer  = new LinkedList<Boolean>();
-	dataLinkLayer.byteBuffer = new LinkedList<Byte>();
 	return dataLinkLayer;
 
-    } // create ()
+    } // instantiate ()
     // =========================================================================
 
 
@@ -128,15 +154,24 @@ public abstract class DataLinkLayer {
 
 	// Call on the underlying physical layer to send the data.
 	byte[] framedData = createFrame(data);
-	for (int i = 0; i < framedData.length; i += 1) {
-	    transmit(framedData[i]);
-	}
+	transmit(framedData, 0, framedData.length);
 
     }
     // =========================================================================
 
 
 
+    // =========================================================================
+    /**
+     * Send any data that earlier sends left waiting in this layer.  Expected
+     * to be called by a client that has nothing more to send for now.  By
+     * default, nothing is ever left waiting.
+     */
+    public void flush () {}
+    // =========================================================================
+
+
+
     // =========================================================================
     /**
      * Embed a raw sequence of bytes into a framed sequence.
@@ -179,6 +214,32 @@ public abstract class DataLinkLayer {
 
 
 
+    // =========================================================================
+    /**
+     * Transmit a sequence of bytes as bits, handing the whole sequence to the
+     * physical layer at once.  Expected to be called by a subclass in
+     * performing a <code>send()</code>.
+     *
+     * @param data   The buffer holding the bytes to send.
+     * @param offset The index of the first byte to send.
+     * @param length The number of bytes to send.
+     */
+    protected void transmit (byte[] data, int offset, int length) {
+
+	if (debug) {
+	    for (int i = offset; i < offset + length; i += 1) {
+		System.out.printf("DataLinkLayer.transmit(): Sending byte = %c\n",
+				  data[i]);
+	    }
+	}
+
+	physicalLayer.send(data, offset, length);
+
+    } // transmit ()
+    // =========================================================================
+
+
+
     // =========================================================================
     /**
      * Deliver a bit into this layer.  Expected to be called by the physical
@@ -193,35 +254,45 @@ public abstract class DataLinkLayer {
      */
     public void receive (boolean bit) {
 
-	// Add the new bit to the buffer.
-	bitBuffer.add(bit);
+	// Shift the new bit in below those already buffered.
+	bitBuffer  = (bitBuffer << 1) | (bit ? 1 : 0);
+	bitCount  += 1;
 
 	// If this bit completes a byte, then add it to the byte buffer.
-	if (bitBuffer.size() >= BITS_PER_BYTE) {
+	if (bitCount >= BITS_PER_BYTE) {
+	    byte newByte = (byte)bitBuffer;
+	    bitBuffer = 0;
+	    bitCount  = 0;
+	    receive(newByte);
+	}
 
-	    // Build up the byte from the bits...
-	    byte newByte = 0;
-	    for (int i = 0; i < BITS_PER_BYTE; i += 1) {
-		bit = bitBuffer.remove();
-		newByte = (byte)((newByte << 1) | (bit ? 1 : 0));
-	    }
+    } // receive ()
+    // =========================================================================
 
-	    // ...and add it to the byte buffer.
-	    byteBuffer.add(newByte);
-	    if (debug) {
-		System.out.printf("DataLinkLayer.receive(): Got new byte = %c\n",
-				  newByte);
-	    }
 
-	    // Attempt to process the buffered bytes as a frame.  If a complete
-	    // frame is found and its contents extraction, deliver those
-	    // contents to the client.
-	    byte[] originalData = processFrame();
-	    if (originalData != null) {
-		if (debug) {
-		    System.out.println("DataLinkLayer.receive(): Got a whole frame!");
+
+    // =========================================================================
+    /**
+     * Deliver a sequence of whole bytes into this layer.  Expected to be
+     * called by the physical layer.  Each byte is handled exactly as if its
+     * bits had arrived one at a time.
+     *
+     * @param data   The buffer holding the received bytes.
+     * @param offset The index of the first received byte.
+     * @param length The number of received bytes.
+     */
+    public void receive (byte[] data, int offset, int length) {
+
+	for (int i = offset; i < offset + length; i += 1) {
+
+	    // If a partial byte is pending, the new bytes are not aligned with
+	    // it, so fall back to delivering bits.
+	    if (bitCount != 0) {
+		for (int b = BITS_PER_BYTE - 1; b >= 0; b -= 1) {
+		    receive(((1 << b) & data[i]) != 0);
 		}
-		client.receive(originalData);
+	    } else {
+		receive(data[i]);
 	    }
 
 	}
@@ -231,6 +302,37 @@ public abstract class DataLinkLayer {
 
 
 
+    // =========================================================================
+    /**
+     * Add a whole byte to the byte buffer, and if that completes a frame,
+     * deliver its contents to the client.
+     *
+     * @param newByte The byte received.
+     */
+    protected void receive (byte newByte) {
+
+	byteBuffer.add(newByte);
+	if (debug) {
+	    System.out.printf("DataLinkLayer.receive(): Got new byte = %c\n",
+			      newByte);
+	}
+
+	// Attempt to process the buffered bytes as a frame.  If a complete
+	// frame is found and its contents extraction, deliver those
+	// contents to the client.
+	byte[] originalData = processFrame();
+	if (originalData != null) {
+	    if (debug) {
+		System.out.println("DataLinkLayer.receive(): Got a whole frame!");
+	    }
+	    client.receive(originalData);
+	}
+
+    } // receive ()
+    // =========================================================================
+
+
+
     // =========================================================================
     /**
      * Determine whether the byte buffer contains a complete frame.  If so,
@@ -255,15 +357,24 @@ public abstract class DataLinkLayer {
     /** The host that is using this layer. */
     protected Host           client;
 
-    /** The buffer of bits recently received, building up the current byte. */
-    protected Queue<Boolean> bitBuffer;
+    /**
+     * The bits recently received, building up the current byte, packed with
+     * the most recent bit lowest.
+     */
+    protected int            bitBuffer;
+
+    /** The number of bits in <code>bitBuffer</code>. */
+    protected int            bitCount;
 
     /** The buffer of bytes recently received, building up the current frame. */
-    protected Queue<Byte>    byteBuffer;
+    protected ByteRingBuffer byteBuffer;
 
     /** The number of bits in a byte. */
     public static final int     BITS_PER_BYTE = 8;
 
+    /** The initial capacity of the byte buffer; it grows as needed. */
+    private static final int    INITIAL_BUFFER_CAPACITY = 64;
+
     /** Whether to emit debugging information. */
     public static final boolean debug = false;
     // =========================================================================
@@ -0,0 +1,192 @@
+// =============================================================================
+// IMPORTS
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+// =============================================================================
+
+
+
+// =============================================================================
+/**
+ * A codec stage that compresses each frame with Deflate, so that fewer bits
+ * go onto the wire, and fewer of them can be hit by noise.  Each frame is
+ * compressed on its own, so a lost frame costs no others.  A frame that
+ * Deflate cannot shrink, such as one already compressed, is sent stored
+ * instead, so no frame grows by more than the one-byte header:
+ *
+ *     [STORED] data...    or    [DEFLATED] compressed data...
+ *
+ * Short frames leave Deflate little to work with, so this stage pays off
+ * best behind a generous chunk size, as in
+ * <code>Chunk:1024+Deflate+CRC+COBS</code>; compressed frames then come out
+ * well under the chunk size on text.
+ *
+ * @file   DeflateCodec.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class DeflateCodec implements LinkCodec {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The constructor.
+     *
+     * @param  level The Deflate compression level, from 0 to 9.
+     * @throws RuntimeException if the level is out of range.
+     */
+    public DeflateCodec (int level) {
+
+	if (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+	    throw new RuntimeException("Invalid compression level " + level);
+	}
+	// Raw Deflate: the CRC stages already check the frame, so the zlib
+	// header and checksum would only add bytes.
+	deflater = new Deflater(level, true);
+	inflater = new Inflater(true);
+
+    } // DeflateCodec ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public void encode (CodecBuffer in, CodecBuffer out) {
+
+	int    length = in.getLength();
+	byte[] source = in.getArray();
+
+	// Compress into room for one byte less than the frame; if Deflate
+	// fills it without finishing, storing the frame is no worse.
+	out.setLength(length);
+	byte[] array   = out.getArray();
+	int    written = 0;
+	if (length > 1) {
+	    deflater.reset();
+	    deflater.setInput(source, 0, length);
+	    deflater.finish();
+	    while (!deflater.finished() && HEADER_LENGTH + written < length) {
+		written += deflater.deflate(array,
+					    HEADER_LENGTH + written,
+					    length - HEADER_LENGTH - written);
+	    }
+	}
+
+	if (length > 1 && deflater.finished()) {
+	    array[0] = DEFLATED;
+	    out.setLength(HEADER_LENGTH + written);
+	} else {
+	    out.setLength(HEADER_LENGTH + length);
+	    array = out.getArray();
+	    array[0] = STORED;
+	    System.arraycopy(source, 0, array, HEADER_LENGTH, length);
+	}
+
+    } // encode ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public boolean decode (CodecBuffer in, CodecBuffer out) {
+
+	int    length = in.getLength() - HEADER_LENGTH;
+	byte[] source = in.getArray();
+	if (length < 0) {
+	    return false;
+	}
+	if (source[0] == STORED) {
+	    out.append(source, HEADER_LENGTH, length);
+	    return true;
+	}
+	if (source[0] != DEFLATED) {
+	    return false;
+	}
+
+	// Inflate, growing the output as it fills, up to a limit that keeps a
+	// damaged frame from claiming unbounded memory.
+	inflater.reset();
+	inflater.setInput(source, HEADER_LENGTH, length);
+	out.ensureCapacity(INFLATION_GUESS * length);
+	int inflated = 0;
+	try {
+	    while (!inflater.finished()) {
+		byte[] array = out.getArray();
+		if (inflated == array.length) {
+		    if (inflated >= MAX_INFLATED_LENGTH) {
+			return false;
+		    }
+		    out.ensureCapacity(inflated + 1);
+		    continue;
+		}
+		int count = inflater.inflate(array, inflated, array.length - inflated);
+		if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+		    return false;
+		}
+		inflated += count;
+	    }
+	} catch (DataFormatException e) {
+	    return false;
+	}
+
+	// Bytes left over after the end of the stream mean damage too.
+	if (inflater.getRemaining() != 0) {
+	    return false;
+	}
+	out.setLength(inflated);
+	return true;
+
+    } // decode ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public int getMaxEncodedLength (int length) {
+
+	// A frame that does not shrink is stored, behind the header.
+	return HEADER_LENGTH + length;
+
+    } // getMaxEncodedLength ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** The header values marking how a frame was sent. */
+    private static final byte STORED   = 0;
+    private static final byte DEFLATED = 1;
+
+    /** The number of bytes in the header. */
+    private static final int  HEADER_LENGTH = 1;
+
+    /** How many times its compressed size a frame is first given room for. */
+    private static final int  INFLATION_GUESS = 4;
+
+    /** The most bytes an incoming frame may inflate to. */
+    private static final int  MAX_INFLATED_LENGTH = 1 << 20;
+
+    /** The compressor, reset for each outgoing frame. */
+    private final Deflater    deflater;
+
+    /** The decompressor, reset for each incoming frame. */
+    private final Inflater    inflater;
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class DeflateCodec
+// =============================================================================
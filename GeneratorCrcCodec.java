@@ -0,0 +1,280 @@
+// =============================================================================
+// IMPORTS
+
+import java.util.HashMap;
+import java.util.Map;
+// =============================================================================
+
+
+
+// =============================================================================
+/**
+ * A codec stage that appends the remainder of dividing each frame by a CRC
+ * generator, as the original CRC data link layer does, rather than a CRC from
+ * the catalog.  The remainder takes as many bits as the generator's degree,
+ * padded out to whole bytes with zeros at the end, and the receiver divides
+ * only the significant bits of the last byte.  Optionally, a frame whose
+ * remainder is that of a single flipped bit has that bit flipped back; see
+ * <code>SyndromeTable</code>.
+ *
+ * @file   GeneratorCrcCodec.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class GeneratorCrcCodec implements LinkCodec {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The constructor.  The engine starts as the fastest for short frames.
+     *
+     * @param  generator The generator polynomial, including its leading term.
+     * @throws RuntimeException if the generator has no terms but the leading
+     *                          one.
+     */
+    public GeneratorCrcCodec (int generator) {
+
+	int degree = Integer.SIZE - Integer.numberOfLeadingZeros(generator) - 1;
+	if (degree < 1) {
+	    throw new RuntimeException("Invalid generator " + generator);
+	}
+	this.generator    = generator;
+	this.degree       = degree;
+	this.crcBytes     = (degree + Byte.SIZE - 1) / Byte.SIZE;
+	this.lastByteBits = degree - (crcBytes - 1) * Byte.SIZE;
+	this.engine       = CrcEngine.forFrameSize(generator, SHORT_FRAME + crcBytes);
+
+    } // GeneratorCrcCodec ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The generator polynomial.
+     */
+    public int getGenerator () {
+
+	return generator;
+
+    } // getGenerator ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The number of bytes the remainder takes.
+     */
+    public int getCrcBytes () {
+
+	return crcBytes;
+
+    } // getCrcBytes ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Divide with another engine.  Every engine gives the same remainders,
+     * so this only changes how fast frames are checked.
+     *
+     * @param engine An engine for this codec's generator.
+     */
+    public void setEngine (CrcEngine engine) {
+
+	this.engine = engine;
+
+    } // setEngine ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Correct single-bit errors instead of dropping the frame.
+     *
+     * @param enabled Whether to correct single-bit errors.
+     */
+    public void setErrorCorrection (boolean enabled) {
+
+	corrector = enabled ? new SyndromeTable(this::buildSyndromes) : null;
+
+    } // setErrorCorrection ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The number of frames received with a single-bit error that was
+     *         corrected.
+     */
+    public long getCorrectedFrames () {
+
+	return correctedFrames;
+
+    } // getCorrectedFrames ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public void encode (CodecBuffer in, CodecBuffer out) {
+
+	int length = in.getLength();
+	out.setLength(length + crcBytes);
+	byte[] array = out.getArray();
+	System.arraycopy(in.getArray(), 0, array, 0, length);
+
+	// Divide the data followed by zeros where the remainder will go, then
+	// put the remainder in their place, padded to line up with them.
+	for (int i = length; i < length + crcBytes; i += 1) {
+	    array[i] = 0;
+	}
+	int remainder = engine.remainder(array, 0, length + crcBytes, lastByteBits);
+	int padded    = remainder << (Byte.SIZE - lastByteBits);
+	for (int i = 0; i < crcBytes; i += 1) {
+	    array[length + i] = (byte)(padded >>> ((crcBytes - 1 - i) * Byte.SIZE));
+	}
+
+    } // encode ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public boolean decode (CodecBuffer in, CodecBuffer out) {
+
+	int length = in.getLength();
+	if (length < crcBytes) {
+	    return false;
+	}
+	byte[] array     = in.getArray();
+	int    remainder = engine.remainder(array, 0, length, lastByteBits);
+	if (remainder != 0 && !correct(array, length, remainder)) {
+	    return false;
+	}
+	out.append(array, 0, length - crcBytes);
+	return true;
+
+    } // decode ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public int getMaxEncodedLength (int length) {
+
+	return length + crcBytes;
+
+    } // getMaxEncodedLength ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // PRIVATE METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Flip back the single bit the remainder points to, if there is one, and
+     * divide again, so that a table slip can never pass a frame that fails
+     * its check.
+     *
+     * @return Whether the frame is now intact.
+     */
+    private boolean correct (byte[] array, int length, int remainder) {
+
+	if (corrector == null) {
+	    return false;
+	}
+	int position = corrector.locate(length, remainder);
+	if (position < 0) {
+	    return false;
+	}
+	SyndromeTable.flipBit(array, position);
+	if (engine.remainder(array, 0, length, lastByteBits) != 0) {
+	    SyndromeTable.flipBit(array, position);
+	    return false;
+	}
+	correctedFrames += 1;
+	System.err.println("[+] Corrected a single-bit error; remainder was " + remainder);
+	return true;
+
+    } // correct ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Build the remainders for frames of one length.  A flip <i>k</i> bits
+     * before the end of the significant bits leaves x^k mod the generator,
+     * so the remainders come from multiplying by x over and over.
+     */
+    private Map<Long, Integer> buildSyndromes (int frameLength) {
+
+	int lastBit = frameLength * Byte.SIZE - (Byte.SIZE - lastByteBits) - 1;
+
+	Map<Long, Integer> table    = new HashMap<Long, Integer>();
+	long               syndrome = 1;
+	for (int k = 0; k <= lastBit; k += 1) {
+	    SyndromeTable.add(table, syndrome, lastBit - k);
+	    syndrome <<= 1;
+	    if ((syndrome & (1L << degree)) != 0) {
+		syndrome ^= generator;
+	    }
+	}
+	return table;
+
+    } // buildSyndromes ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** The number of data bytes in the short frames the first engine suits. */
+    private static final int SHORT_FRAME = 8;
+
+    /** The generator, with its leading term. */
+    private final int generator;
+
+    /** The degree of the generator, and so the bits in a remainder. */
+    private final int degree;
+
+    /** The number of bytes the remainder takes. */
+    private final int crcBytes;
+
+    /** The number of significant bits in the last byte of the remainder. */
+    private final int lastByteBits;
+
+    /** The engine that divides. */
+    private CrcEngine engine;
+
+    /** The single-bit corrector, or <code>null</code> if not correcting. */
+    private SyndromeTable corrector;
+
+    /** The number of frames corrected. */
+    private volatile long correctedFrames;
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class GeneratorCrcCodec
+// =============================================================================
@@ -0,0 +1,105 @@
+// =============================================================================
+/**
+ * A sliding-window data link layer using Go-Back-N.  The receiver accepts
+ * only the frame it expects next, discarding any that arrive out of order,
+ * so its acknowledgements are purely cumulative.  When a frame is lost, the
+ * sender goes back to it and resends it along with everything sent after it.
+ *
+ * @file   GoBackNDataLinkLayer.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class GoBackNDataLinkLayer extends ArqDataLinkLayer {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PROTECTED METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return One less than the number of sequence numbers, so that a full
+     *         window never wraps around onto its own start.
+     */
+    protected int getMaxWindowSize () {
+
+	return SEQUENCE_SPACE - 1;
+
+    } // getMaxWindowSize ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * If the oldest outstanding frame has timed out, resend the whole window.
+     *
+     * @param now The current time, from <code>System.nanoTime()</code>.
+     */
+    protected void handleTimeout (long now) {
+
+	int base = getSendBase();
+	if (hasExpired(base, now)) {
+	    markForResendFrom(base);
+	}
+
+    } // handleTimeout ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Resend the missing frame and every frame sent after it.
+     *
+     * @param seq The sequence number the receiver is missing.
+     */
+    protected void handleNak (int seq) {
+
+	if (isOutstanding(seq)) {
+	    markForResendFrom(seq);
+	}
+
+    } // handleNak ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Deliver the frame if it is the one expected next, and discard it
+     * otherwise.  Either way, tell the sender what is expected next: by an
+     * ACK, or by a NAK when a frame has first been found missing.
+     *
+     * @param  seq   The sequence number of the frame.
+     * @param  frame The frame's type, sequence number, payload and CRC.
+     * @return The frame's payload, if it was expected; <code>null</code>
+     *         otherwise.
+     */
+    protected byte[] acceptData (int seq, byte[] frame) {
+
+	if (seq != getReceiveNext()) {
+	    if (!sendNak()) {
+		sendAck((getReceiveNext() - 1) & SEQUENCE_MASK);
+	    }
+	    return null;
+	}
+
+	byte[] data = new byte[payloadLength(frame)];
+	copyPayload(frame, data, 0);
+	advanceReceiveNext();
+	sendAck(seq);
+	return data;
+
+    } // acceptData ()
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class GoBackNDataLinkLayer
+// =============================================================================
@@ -0,0 +1,386 @@
+// =============================================================================
+// IMPORTS
+
+import java.util.Arrays;
+import java.util.zip.Checksum;
+// =============================================================================
+
+
+
+// =============================================================================
+/**
+ * A data link layer that frames data at the level of bits, as HDLC does.
+ * Each frame is its data and a CRC-16, between two flags, 01111110.  So that
+ * no flag can appear inside a frame, the sender stuffs a 0 after every five
+ * 1 bits in a row, and the receiver removes it; the overhead is therefore at
+ * most one bit in five, and none at all for data with few runs of 1s.  At
+ * worst, a kilobyte of 0xff bytes takes 1233 bytes on the wire as a single
+ * frame, or 1296 bytes as frames of the default 64 data bytes, flags and
+ * CRCs included.
+ * Frames need not fill whole bytes on the wire, so they go to the physical
+ * layer as packed bits.
+ *
+ * The receiver works on the bits as they arrive, never regrouping them into
+ * bytes first.  An 8-bit shift register spots flags, a count of 1s in a row
+ * spots stuffed bits, and unstuffed bits are written straight into a frame
+ * buffer reused from frame to frame.  Whole bytes from the physical layer
+ * are simply taken apart into their bits.  Seven or more 1s in a row abort
+ * the current frame; a frame that does not come to whole bytes, or fails its
+ * CRC, is dropped.
+ *
+ * @file   HDLCDataLinkLayer.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class HDLCDataLinkLayer extends DataLinkLayer {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @param  payloadSize The most data bytes per frame.
+     * @throws RuntimeException if the size is not from 1 to the largest frame
+     *                          the receiver accepts.
+     */
+    public void setPayloadSize (int payloadSize) {
+
+	if (payloadSize < 1 || payloadSize > MAX_FRAME_BYTES - CRC_BYTES) {
+	    throw new RuntimeException("Invalid payload size " + payloadSize);
+	}
+	this.payloadSize = payloadSize;
+
+    } // setPayloadSize ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Send a sequence of bytes, a frame at a time, as packed bits.
+     *
+     * @param data The sequence of bytes to send.
+     */
+    public void send (byte[] data) {
+
+	for (int offset = 0; offset < data.length; offset += payloadSize) {
+	    int length = Math.min(payloadSize, data.length - offset);
+	    int bits   = encodeFrame(data, offset, length);
+	    physicalLayer.send(PackedBits.fromWords(encoded, bits));
+	}
+
+    } // send ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Take in one bit: watch for flags and stuffed bits, and add any other
+     * bit to the frame in progress.
+     *
+     * @param bit The value to receive, where <code>false</code> indicates a
+     *            <code>0</code>, and <code>true</code> indicates a
+     *            <code>1</code>.
+     */
+    public void receive (boolean bit) {
+
+	int value = bit ? 1 : 0;
+	shift     = ((shift << 1) | value) & 0xff;
+
+	if (shift == FLAG) {
+	    endFrame();
+	    inFrame   = true;
+	    frameBits = 0;
+	    ones      = 0;
+	    return;
+	}
+
+	if (bit) {
+	    ones += 1;
+	    if (ones > MAX_ONES) {
+		inFrame = false;
+		return;
+	    }
+	} else {
+	    boolean stuffed = (ones == STUFF_AFTER);
+	    ones = 0;
+	    if (stuffed) {
+		return;
+	    }
+	}
+
+	if (inFrame) {
+	    appendBit(value);
+	}
+
+    } // receive ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // PROTECTED METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Take a whole byte apart into its bits, most significant first.
+     *
+     * @param newByte The byte received.
+     */
+    protected void receive (byte newByte) {
+
+	for (int i = BITS_PER_BYTE - 1; i >= 0; i -= 1) {
+	    receive(((newByte >>> i) & 1) != 0);
+	}
+
+    } // receive ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Embed a raw sequence of bytes into a single frame, padded out to whole
+     * bytes with 1 bits, which a receiver takes as idle line.
+     *
+     * @param  data The raw sequence of bytes to be framed.
+     * @return A complete frame.
+     */
+    protected byte[] createFrame (byte[] data) {
+
+	int    bits   = encodeFrame(data, 0, data.length);
+	int    length = (bits + BITS_PER_BYTE - 1) / BITS_PER_BYTE;
+	byte[] frame  = PackedBits.fromWords(encoded, bits).toBytes();
+	frame = Arrays.copyOf(frame, length);
+	int padding = length * BITS_PER_BYTE - bits;
+	frame[length - 1] |= (byte)((1 << padding) - 1);
+	return frame;
+
+    } // createFrame ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Frames are found bit by bit in <code>receive()</code>, so there are
+     * never buffered bytes to look at.
+     *
+     * @return <code>null</code>.
+     */
+    protected byte[] processFrame () {
+
+	return null;
+
+    } // processFrame ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // PRIVATE METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Write a flag, the stuffed data and CRC, and another flag into the
+     * reusable encoding buffer.
+     *
+     * @return The number of bits in the frame.
+     */
+    private int encodeFrame (byte[] data, int offset, int length) {
+
+	// At worst, one stuffed bit for every five.
+	int maxBits  = 2 * BITS_PER_BYTE +
+	               (length + CRC_BYTES) * BITS_PER_BYTE * (STUFF_AFTER + 1) / STUFF_AFTER + 1;
+	int maxWords = (maxBits + Long.SIZE - 1) / Long.SIZE;
+	if (encoded.length < maxWords) {
+	    encoded = new long[maxWords];
+	} else {
+	    Arrays.fill(encoded, 0, maxWords, 0L);
+	}
+
+	sendChecksum.reset();
+	sendChecksum.update(data, offset, length);
+	long crc = sendChecksum.getValue();
+
+	encodedBits = 0;
+	putFlag();
+	int run = 0;
+	for (int i = offset; i < offset + length + CRC_BYTES; i += 1) {
+	    int current = (i < offset + length)
+		? data[i]
+		: (int)(crc >>> ((offset + length + CRC_BYTES - 1 - i) * BITS_PER_BYTE));
+	    for (int b = BITS_PER_BYTE - 1; b >= 0; b -= 1) {
+		int value = (current >>> b) & 1;
+		putBit(value);
+		run = (value == 1) ? run + 1 : 0;
+		if (run == STUFF_AFTER) {
+		    putBit(0);
+		    run = 0;
+		}
+	    }
+	}
+	putFlag();
+	return encodedBits;
+
+    } // encodeFrame ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    private void putFlag () {
+
+	for (int b = BITS_PER_BYTE - 1; b >= 0; b -= 1) {
+	    putBit((FLAG >>> b) & 1);
+	}
+
+    } // putFlag ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    private void putBit (int value) {
+
+	if (value != 0) {
+	    encoded[encodedBits / Long.SIZE] |= Long.MIN_VALUE >>> (encodedBits % Long.SIZE);
+	}
+	encodedBits += 1;
+
+    } // putBit ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Add a bit to the frame in progress, aborting it if it grows too long.
+     */
+    private void appendBit (int value) {
+
+	int index = frameBits / BITS_PER_BYTE;
+	if (index == frame.length) {
+	    if (frame.length == MAX_FRAME_BYTES) {
+		inFrame = false;
+		return;
+	    }
+	    frame = Arrays.copyOf(frame, Math.min(2 * frame.length, MAX_FRAME_BYTES));
+	}
+	int offset = frameBits % BITS_PER_BYTE;
+	if (offset == 0) {
+	    frame[index] = 0;
+	}
+	frame[index] |= (byte)(value << (BITS_PER_BYTE - 1 - offset));
+	frameBits    += 1;
+
+    } // appendBit ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * At a flag, finish the frame in progress, if any, and deliver its data
+     * if it is whole and intact.
+     */
+    private void endFrame () {
+
+	if (!inFrame) {
+	    return;
+	}
+
+	// All but the last bit of the flag went into the frame before the flag
+	// could be recognized.
+	int bits = frameBits - (BITS_PER_BYTE - 1);
+	if (bits <= 0) {
+	    return;
+	}
+	if (bits % BITS_PER_BYTE != 0 || bits / BITS_PER_BYTE <= CRC_BYTES) {
+	    System.err.println("[-] Malformed HDLC frame dropped");
+	    return;
+	}
+
+	int length     = bits / BITS_PER_BYTE;
+	int dataLength = length - CRC_BYTES;
+	receiveChecksum.reset();
+	receiveChecksum.update(frame, 0, dataLength);
+	long appended = 0;
+	for (int i = dataLength; i < length; i += 1) {
+	    appended = (appended << BITS_PER_BYTE) | (frame[i] & 0xff);
+	}
+	if (receiveChecksum.getValue() != appended) {
+	    System.err.println("[-] CRC mismatch; HDLC frame dropped");
+	    return;
+	}
+	client.receive(Arrays.copyOf(frame, dataLength));
+
+    } // endFrame ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** The flag that opens and closes every frame. */
+    private static final int FLAG            = 0x7e;
+
+    /** The number of 1s in a row after which a 0 is stuffed. */
+    private static final int STUFF_AFTER     = 5;
+
+    /** The most 1s in a row that can occur, in a flag; any more abort. */
+    private static final int MAX_ONES        = 6;
+
+    /** The bytes of CRC that end every frame. */
+    private static final int CRC_BYTES       = 2;
+
+    /** The longest frame the receiver accepts, CRC included. */
+    private static final int MAX_FRAME_BYTES = 1 << 16;
+
+    /** The default number of data bytes per frame. */
+    private static final int DEFAULT_PAYLOAD_SIZE = 64;
+
+    /** The most data bytes per frame. */
+    private int payloadSize = DEFAULT_PAYLOAD_SIZE;
+
+    /** The frame being encoded, and its length in bits. */
+    private long[] encoded = new long[0];
+    private int    encodedBits;
+
+    /** The last eight bits received, the most recent lowest. */
+    private int     shift;
+
+    /** The number of 1s received in a row. */
+    private int     ones;
+
+    /** Whether a frame is in progress. */
+    private boolean inFrame;
+
+    /** The unstuffed bits of the frame in progress, and their number. */
+    private byte[]  frame = new byte[DEFAULT_PAYLOAD_SIZE + CRC_BYTES];
+    private int     frameBits;
+
+    /** The checksums for the sending and the receiving side. */
+    private final Checksum sendChecksum    = CrcSpec.CRC_16_CCITT.newChecksum();
+    private final Checksum receiveChecksum = CrcSpec.CRC_16_CCITT.newChecksum();
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class HDLCDataLinkLayer
+// =============================================================================
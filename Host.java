@@ -3,6 +3,9 @@
 
 import java.util.Queue;
 import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 // =============================================================================
 
 
@@ -57,18 +60,38 @@ public class Host {
 
 
 
+    // =========================================================================
+    /**
+     * Send any data that the network stack is still holding back.
+     */
+    public void flush () {
+
+	dataLinkLayer.flush();
+
+    } // flush ()
+    // =========================================================================
+
+
+
     // =========================================================================
     /**
      * Receive bytes from the lower layer.  Buffer those until they are
-     * retrieved.
+     * retrieved.  This may be called from one thread while another
+     * retrieves.
      *
      * @param data The data received and to be buffered.
      */
     public void receive (byte[] data) {
 
-	// Add the bytes into the buffer.
-	for (int i = 0; i < data.length; i += 1) {
-	    buffer.add(data[i]);
+	// Add the bytes into the buffer, and wake any waiting reader.
+	lock.lock();
+	try {
+	    for (int i = 0; i < data.length; i += 1) {
+		buffer.add(data[i]);
+	    }
+	    received.signalAll();
+	} finally {
+	    lock.unlock();
 	}
 	
     } // receive ()
@@ -84,17 +107,95 @@ public class Host {
      */
     public byte[] retrieve () {
 
-	// Remove the bytes from the buffer, adding them to a newly formed array
-	// to be returned.
-	byte[] received = new byte[buffer.size()];
-	for (int i = 0; i < received.length; i += 1) {
-	    received[i] = buffer.remove();
+	lock.lock();
+	try {
+	    return take(buffer.size());
+	} finally {
+	    lock.unlock();
 	}
-
-	return received;
 	
     } // retrieve ()
     // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Retrieve buffered bytes, waiting for some to arrive if there are none.
+     *
+     * @param  max           The most bytes to retrieve.
+     * @param  timeoutMillis The longest to wait, in milliseconds.
+     * @return The bytes, of which there are none if the wait timed out.
+     * @throws RuntimeException if interrupted while waiting.
+     */
+    public byte[] retrieve (int max, long timeoutMillis) {
+
+	lock.lock();
+	try {
+	    long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+	    while (buffer.isEmpty() && remaining > 0) {
+		remaining = received.awaitNanos(remaining);
+	    }
+	    return take(Math.min(max, buffer.size()));
+	} catch (InterruptedException e) {
+	    Thread.currentThread().interrupt();
+	    throw new RuntimeException("Interrupted while retrieving");
+	} finally {
+	    lock.unlock();
+	}
+
+    } // retrieve ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The medium to which this host is connected.
+     */
+    public Medium getMedium () {
+
+	return medium;
+
+    } // getMedium ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The data link layer through which this host communicates.
+     */
+    public DataLinkLayer getDataLinkLayer () {
+
+	return dataLinkLayer;
+
+    } // getDataLinkLayer ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // PRIVATE METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Remove bytes from the buffer, adding them to a newly formed array to be
+     * returned.  The lock must be held.
+     */
+    private byte[] take (int count) {
+
+	byte[] taken = new byte[count];
+	for (int i = 0; i < count; i += 1) {
+	    taken[i] = buffer.remove();
+	}
+	return taken;
+
+    } // take ()
+    // =========================================================================
     
 
 
@@ -113,6 +214,12 @@ public class Host {
     /** The buffered bytes received via the network stack. */
     private Queue<Byte>   buffer;
 
+    /** Guards the buffer, which is filled and emptied by different threads.
+     *  An explicit lock, unlike a monitor, lets a waiting virtual thread
+     *  give up its carrier. */
+    private final ReentrantLock lock     = new ReentrantLock();
+    private final Condition     received = lock.newCondition();
+
     /** Whether to emit debugging information. */
     private static final boolean debug = false;
     // =========================================================================
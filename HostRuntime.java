@@ -0,0 +1,558 @@
+// =============================================================================
+// IMPORTS
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+// =============================================================================
+
+
+
+// =============================================================================
+/**
+ * Runs many hosts at once, each with a send loop and a receive loop on
+ * threads of its own.  The receive loop blocks on the host until bytes
+ * arrive.  Once every send loop has finished and every medium has drained,
+ * the receive loops collect what is left and stop, and the runtime reports
+ * how many bytes got through and how fast.
+ *
+ * Threads come from a factory.  By default, that is a virtual-thread factory
+ * if the Java runtime offers one, so that thousands of blocked hosts cost
+ * little; it is looked up by reflection, so that this class still builds on
+ * runtimes that lack it.  Otherwise, daemon platform threads with small
+ * stacks are used.
+ *
+ * @file   HostRuntime.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class HostRuntime {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Measure the aggregate throughput of growing numbers of hosts.
+     *
+     * @param args The medium type, the data link layer type, the topology
+     *             (<code>pairs</code>, where each pair of hosts has a medium
+     *             to itself, or <code>shared</code>, where all hosts share
+     *             one), the number of bytes each host sends, and one or more
+     *             host counts.  ARQ layers link two hosts, so they only run
+     *             in pairs.  Exits with status 1 if any run receives fewer
+     *             bytes than were sent to it.
+     */
+    public static void main (String[] args) {
+
+	if (args.length < 5 ||
+	    !(args[2].equals("pairs") || args[2].equals("shared"))) {
+
+	    System.err.println("Usage: java HostRuntime "     +
+			       "<medium type> "               +
+			       "<data link layer type> "      +
+			       "<pairs|shared> "              +
+			       "<bytes per host> "            +
+			       "<host count>...");
+	    System.exit(1);
+
+	}
+
+	String  mediumType        = args[0];
+	String  dataLinkLayerType = args[1];
+	boolean shared            = args[2].equals("shared");
+	int     bytesPerHost      = Integer.parseInt(args[3]);
+	Random  random            = new Random(SEED);
+	boolean shortfall         = false;
+
+	for (int a = 4; a < args.length; a += 1) {
+
+	    int         hostCount = Integer.parseInt(args[a]);
+	    HostRuntime runtime   = new HostRuntime();
+	    Medium      medium    = null;
+	    for (int i = 0; i < hostCount; i += 1) {
+
+		// Each pair, or the whole group, gets a medium.
+		if (medium == null || (!shared && i % 2 == 0)) {
+		    medium = Medium.create(mediumType);
+		    medium.setAsynchronous(QUEUE_CAPACITY, runtime.getThreadFactory());
+		}
+		byte[] outgoing = new byte[bytesPerHost];
+		random.nextBytes(outgoing);
+
+		// A host hears everyone else on its medium.
+		int peers    = shared ? hostCount - 1
+		                      : ((i % 2 == 0 && i + 1 == hostCount) ? 0 : 1);
+		int  expected = peers * bytesPerHost;
+		Host host     = new Host(medium, dataLinkLayerType);
+		if (shared && host.getDataLinkLayer() instanceof ArqDataLinkLayer) {
+		    System.err.println(dataLinkLayerType + " links two hosts, " +
+				       "so it can not run shared; use pairs");
+		    System.exit(1);
+		}
+		runtime.add(host, outgoing, expected);
+
+	    }
+
+	    runtime.run(TIMEOUT_MILLIS);
+	    System.out.printf("%d hosts (%s threads): " +
+			      "%d bytes sent, %d received in %.3f s, %.1f KB/s%n",
+			      hostCount,
+			      hasVirtualThreads() ? "virtual" : "platform",
+			      runtime.getBytesSent(),
+			      runtime.getBytesReceived(),
+			      runtime.getElapsedNanos() / 1e9,
+			      runtime.getThroughput() / 1024.0);
+	    if (runtime.getBytesReceived() < runtime.getBytesExpected()) {
+		System.err.printf("%d hosts: only %d of %d bytes received%n",
+				  hostCount,
+				  runtime.getBytesReceived(),
+				  runtime.getBytesExpected());
+		shortfall = true;
+	    }
+
+	}
+	if (shortfall) {
+	    System.exit(1);
+	}
+
+    } // main ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return Whether this Java runtime offers virtual threads.
+     */
+    public static boolean hasVirtualThreads () {
+
+	return virtualThreadFactory() != null;
+
+    } // hasVirtualThreads ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return A virtual-thread factory if this Java runtime offers one, or
+     *         else a factory of daemon platform threads with small stacks.
+     */
+    public static ThreadFactory defaultThreadFactory () {
+
+	ThreadFactory factory = virtualThreadFactory();
+	if (factory != null) {
+	    return factory;
+	}
+
+	AtomicInteger count = new AtomicInteger();
+	return (Runnable task) -> {
+	    Thread thread = new Thread(null,
+				       task,
+				       "HostRuntime-" + count.getAndIncrement(),
+				       PLATFORM_STACK_SIZE);
+	    thread.setDaemon(true);
+	    return thread;
+	};
+
+    } // defaultThreadFactory ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The constructor, using the default thread factory.
+     */
+    public HostRuntime () {
+
+	this(defaultThreadFactory());
+
+    } // HostRuntime ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The constructor.
+     *
+     * @param threadFactory The source of the hosts' threads.
+     */
+    public HostRuntime (ThreadFactory threadFactory) {
+
+	this.threadFactory = threadFactory;
+	this.stations      = new ArrayList<Station>();
+
+    } // HostRuntime ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The source of the hosts' threads, which may also be given to
+     *         asynchronous media for their receiver threads.
+     */
+    public ThreadFactory getThreadFactory () {
+
+	return threadFactory;
+
+    } // getThreadFactory ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Add a host to be run.
+     *
+     * @param host     The host.
+     * @param outgoing The bytes the host is to send.
+     * @param expected The number of bytes the host should receive.
+     */
+    public void add (Host host, byte[] outgoing, int expected) {
+
+	stations.add(new Station(host, outgoing, expected));
+
+    } // add ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Run every host added, and wait for them all to finish.  Then, stop any
+     * asynchronous media they use.
+     *
+     * @param  timeoutMillis The longest to wait for the send loops, in
+     *                       milliseconds.
+     * @return The total number of bytes received.
+     * @throws RuntimeException if a host failed, or if the send loops did not
+     *                          finish in time.
+     */
+    public long run (long timeoutMillis) {
+
+	// Gather the distinct media.
+	Map<Medium, Medium> media = new IdentityHashMap<Medium, Medium>();
+	for (Station station : stations) {
+	    media.put(station.host.getMedium(), station.host.getMedium());
+	}
+
+	stopped = false;
+	failure = null;
+	bytesSent.reset();
+	bytesReceived.reset();
+	long     start     = System.nanoTime();
+	long     deadline  = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+	Thread[] receivers = new Thread[stations.size()];
+	Thread[] senders   = new Thread[stations.size()];
+	for (int i = 0; i < stations.size(); i += 1) {
+	    Station station = stations.get(i);
+	    receivers[i] = launch(() -> receiveLoop(station));
+	}
+	for (int i = 0; i < stations.size(); i += 1) {
+	    Station station = stations.get(i);
+	    senders[i] = launch(() -> {
+		    station.host.send(station.outgoing);
+		    station.host.flush();
+		    bytesSent.add(station.outgoing.length);
+		});
+	}
+
+	// Once the sending is done and delivered, let the receivers finish.
+	boolean finished = joinAll(senders, deadline);
+	try {
+	    if (finished) {
+		for (Medium medium : media.keySet()) {
+		    medium.drain();
+		}
+	    }
+	} finally {
+	    stopped = true;
+	    joinAll(receivers, Long.MAX_VALUE);
+	    elapsedNanos = System.nanoTime() - start;
+	    if (finished) {
+		for (Medium medium : media.keySet()) {
+		    medium.shutdown();
+		}
+	    }
+	}
+
+	if (!finished) {
+	    throw new RuntimeException("Hosts did not finish sending within " +
+				       timeoutMillis + " ms");
+	}
+	if (failure != null) {
+	    throw new RuntimeException("Host failed", failure);
+	}
+	return getBytesReceived();
+
+    } // run ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The total number of bytes sent in the last run.
+     */
+    public long getBytesSent () {
+
+	return bytesSent.sum();
+
+    } // getBytesSent ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The total number of bytes received in the last run.
+     */
+    public long getBytesReceived () {
+
+	return bytesReceived.sum();
+
+    } // getBytesReceived ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The total number of bytes the hosts should receive.
+     */
+    public long getBytesExpected () {
+
+	long expected = 0;
+	for (Station station : stations) {
+	    expected += station.expected;
+	}
+	return expected;
+
+    } // getBytesExpected ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The duration of the last run, in nanoseconds.
+     */
+    public long getElapsedNanos () {
+
+	return elapsedNanos;
+
+    } // getElapsedNanos ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The bytes received per second over the last run.
+     */
+    public double getThroughput () {
+
+	return (elapsedNanos == 0) ? 0.0 : getBytesReceived() * 1e9 / elapsedNanos;
+
+    } // getThroughput ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // PRIVATE METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Read from a host until it has all it expects, or until the run is over
+     * and nothing more is buffered.
+     */
+    private void receiveLoop (Station station) {
+
+	int received = 0;
+	while (received < station.expected) {
+	    byte[] chunk = station.host.retrieve(station.expected - received,
+						 POLL_MILLIS);
+	    if (chunk.length == 0) {
+		if (stopped) {
+		    break;
+		}
+		continue;
+	    }
+	    received += chunk.length;
+	}
+	bytesReceived.add(received);
+
+    } // receiveLoop ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Start a task on a new thread, recording the first failure of any task.
+     */
+    private Thread launch (Runnable task) {
+
+	Thread thread = threadFactory.newThread(() -> {
+		try {
+		    task.run();
+		} catch (Throwable e) {
+		    synchronized (this) {
+			if (failure == null) {
+			    failure = e;
+			}
+		    }
+		}
+	    });
+	thread.start();
+	return thread;
+
+    } // launch ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Wait for threads to finish, up to a deadline.
+     *
+     * @return Whether they all finished.
+     */
+    private static boolean joinAll (Thread[] threads, long deadline) {
+
+	try {
+	    for (Thread thread : threads) {
+		if (deadline == Long.MAX_VALUE) {
+		    thread.join();
+		    continue;
+		}
+		long remaining = deadline - System.nanoTime();
+		if (remaining > 0) {
+		    thread.join(TimeUnit.NANOSECONDS.toMillis(remaining) + 1);
+		}
+		if (thread.isAlive()) {
+		    return false;
+		}
+	    }
+	} catch (InterruptedException e) {
+	    Thread.currentThread().interrupt();
+	    return false;
+	}
+	return true;
+
+    } // joinAll ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Look up the virtual-thread factory by name.
+     *
+     * @return The factory, or <code>null</code> if there is none.
+     */
+    private static ThreadFactory virtualThreadFactory () {
+
+	try {
+	    Object   builder      = Thread.class.getMethod("ofVirtual").invoke(null);
+	    Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+	    return (ThreadFactory)builderClass.getMethod("factory").invoke(builder);
+	} catch (ReflectiveOperationException | RuntimeException e) {
+	    return null;
+	}
+
+    } // virtualThreadFactory ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // INNER CLASSES
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * A host together with its workload.
+     */
+    private static class Station {
+
+	Station (Host host, byte[] outgoing, int expected) {
+	    this.host     = host;
+	    this.outgoing = outgoing;
+	    this.expected = expected;
+	}
+
+	final Host   host;
+	final byte[] outgoing;
+	final int    expected;
+
+    } // class Station
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** The source of the hosts' threads. */
+    private final ThreadFactory threadFactory;
+
+    /** The hosts to run. */
+    private final List<Station> stations;
+
+    /** The bytes sent and received in the last run. */
+    private final LongAdder     bytesSent     = new LongAdder();
+    private final LongAdder     bytesReceived = new LongAdder();
+
+    /** The duration of the last run. */
+    private long                elapsedNanos;
+
+    /** Whether the receive loops should stop once nothing is buffered. */
+    private volatile boolean    stopped;
+
+    /** The first failure of any host in the last run. */
+    private Throwable           failure;
+
+    /** How long a receive loop waits before checking whether to stop. */
+    private static final long   POLL_MILLIS         = 50;
+
+    /** The stack size of fallback platform threads. */
+    private static final long   PLATFORM_STACK_SIZE = 256 * 1024;
+
+    /** The receive queue capacity of the media made by main(). */
+    private static final int    QUEUE_CAPACITY      = 256;
+
+    /** The longest main() waits for a run. */
+    private static final long   TIMEOUT_MILLIS      = 600000;
+
+    /** The seed for the data sent by main(). */
+    private static final long   SEED                = 5;
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class HostRuntime
+// =============================================================================
@@ -0,0 +1,105 @@
+// =============================================================================
+/**
+ * A codec stage that interleaves the bytes of each frame, so that a burst of
+ * errors on the wire is spread across the frame.  With depth <i>d</i>, the
+ * frame is cut into <i>d</i> segments of nearly equal length, and the wire
+ * carries one byte from each segment in turn, so a burst of up to <i>d</i>
+ * bytes touches each segment at most once.  Placed after an error-correcting
+ * stage whose blocks are no longer than the segments, such a burst costs
+ * each block at most one byte.
+ *
+ * @file   InterleaveCodec.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class InterleaveCodec implements LinkCodec {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The constructor.
+     *
+     * @param  depth The number of rows.
+     * @throws RuntimeException if the depth is not positive.
+     */
+    public InterleaveCodec (int depth) {
+
+	if (depth < 1) {
+	    throw new RuntimeException("Invalid interleaving depth " + depth);
+	}
+	this.depth = depth;
+
+    } // InterleaveCodec ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public void encode (CodecBuffer in, CodecBuffer out) {
+
+	int length = in.getLength();
+	out.setLength(length);
+	byte[] source = in.getArray();
+	byte[] array  = out.getArray();
+	int    at     = 0;
+	for (int row = 0; row < depth; row += 1) {
+	    for (int i = row; i < length; i += depth) {
+		array[i] = source[at++];
+	    }
+	}
+
+    } // encode ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public boolean decode (CodecBuffer in, CodecBuffer out) {
+
+	int length = in.getLength();
+	out.setLength(length);
+	byte[] source = in.getArray();
+	byte[] array  = out.getArray();
+	int    at     = 0;
+	for (int row = 0; row < depth; row += 1) {
+	    for (int i = row; i < length; i += depth) {
+		array[at++] = source[i];
+	    }
+	}
+	return true;
+
+    } // decode ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public int getMaxEncodedLength (int length) {
+
+	return length;
+
+    } // getMaxEncodedLength ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** The number of rows. */
+    private final int depth;
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class InterleaveCodec
+// =============================================================================
@@ -0,0 +1,165 @@
+// =============================================================================
+// IMPORTS
+
+import java.util.zip.Checksum;
+// =============================================================================
+
+
+
+// =============================================================================
+/**
+ * A framer whose frames announce their own length, so that the receiver
+ * never has to inspect the content to find where a frame ends.  Each frame
+ * is a two-byte sync word, a two-byte length, a CRC-8 over those four bytes,
+ * and then the content, unescaped:
+ *
+ *     [sync][sync][length][length][CRC-8] content...
+ *
+ * Once a header checks out, the receiver knows exactly how many bytes to wait
+ * for, and copies the content out of its buffer in one go.  When a header
+ * fails its check, only its first byte is dropped, and the receiver scans
+ * ahead for the next sync word, so a frame that follows a damaged one is
+ * found again rather than lost with it.  The content itself is not checked
+ * here; that is for a checksum stage.  Until that stage has had its say, the
+ * frame stays in the buffer, so that a header that passed its CRC-8 by chance
+ * costs one byte, rather than the good frames its false length would cover.
+ *
+ * @file   LengthFramer.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class LengthFramer implements LinkFramer {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @throws RuntimeException if there is more content than a frame may
+     *                          announce.
+     */
+    public void frame (CodecBuffer in, CodecBuffer out) {
+
+	int length = in.getLength();
+	if (length > MAX_LENGTH) {
+	    throw new RuntimeException("Frame too long: " + length);
+	}
+	out.setLength(HEADER_BYTES + length);
+	byte[] array = out.getArray();
+	array[0] = SYNC_HIGH;
+	array[1] = SYNC_LOW;
+	array[2] = (byte)(length >>> DataLinkLayer.BITS_PER_BYTE);
+	array[3] = (byte)length;
+	checksum.reset();
+	checksum.update(array, 0, HEADER_BYTES - 1);
+	array[HEADER_BYTES - 1] = (byte)checksum.getValue();
+	System.arraycopy(in.getArray(), 0, array, HEADER_BYTES, length);
+
+    } // frame ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public boolean extract (ByteRingBuffer buffer, CodecBuffer out) {
+
+	// A frame never released counts as intact.
+	release(buffer, true);
+
+	while (buffer.size() >= HEADER_BYTES) {
+
+	    // Skip ahead to the next candidate sync word.
+	    if (buffer.get(0) != SYNC_HIGH || buffer.get(1) != SYNC_LOW) {
+		int next = buffer.indexOf(SYNC_HIGH, 1);
+		buffer.discard((next < 0) ? buffer.size() : next);
+		continue;
+	    }
+
+	    // A header that fails its check was never a header at all.
+	    buffer.copyTo(0, header, 0, HEADER_BYTES);
+	    checksum.reset();
+	    checksum.update(header, 0, HEADER_BYTES - 1);
+	    int length = ((header[2] & 0xff) << DataLinkLayer.BITS_PER_BYTE) |
+		         (header[3] & 0xff);
+	    if ((byte)checksum.getValue() != header[HEADER_BYTES - 1] ||
+		length > MAX_LENGTH) {
+		buffer.discard(1);
+		continue;
+	    }
+
+	    // Wait for the rest of the frame, then take it in one copy, leaving
+	    // it in place until it has been checked.
+	    if (buffer.size() < HEADER_BYTES + length) {
+		return false;
+	    }
+	    out.setLength(length);
+	    buffer.copyTo(HEADER_BYTES, out.getArray(), 0, length);
+	    held = HEADER_BYTES + length;
+	    return true;
+
+	}
+	return false;
+
+    } // extract ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public void release (ByteRingBuffer buffer, boolean intact) {
+
+	if (held > 0) {
+	    buffer.discard(intact ? held : 1);
+	    held = 0;
+	}
+
+    } // release ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public int getMaxContentLength () {
+
+	return MAX_LENGTH;
+
+    } // getMaxContentLength ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** The sync word that begins every frame. */
+    private static final byte SYNC_HIGH    = (byte)0xc3;
+    private static final byte SYNC_LOW     = (byte)0x5a;
+
+    /** The bytes of sync word, length and header CRC. */
+    private static final int  HEADER_BYTES = 5;
+
+    /** The most content a frame may announce, which bounds how long the
+     *  receiver waits on a header that passes its check by chance. */
+    private static final int  MAX_LENGTH   = 4096;
+
+    /** The bytes of the frame last extracted still in the buffer. */
+    private int            held;
+
+    /** The header being checked. */
+    private final byte[]   header          = new byte[HEADER_BYTES];
+
+    /** The header checksum. */
+    private final Checksum checksum        = CrcSpec.CRC_8.newChecksum();
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class LengthFramer
+// =============================================================================
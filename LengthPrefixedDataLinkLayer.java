@@ -0,0 +1,47 @@
+// =============================================================================
+/**
+ * A data link layer whose frames announce their own length, so that the
+ * receiver never has to inspect the data to find where a frame ends.  Each
+ * frame is a two-byte sync word, a two-byte length, a CRC-8 over those four
+ * bytes, then the data itself, unescaped, followed by its CRC-32:
+ *
+ *     [sync][sync][length][length][CRC-8] data... [CRC-32]
+ *
+ * This is the pipeline <code>Chunk:64+CRC:CRC-32+Length</code>; see
+ * <code>LengthFramer</code> for how damaged headers are skipped and
+ * <code>CodecDataLinkLayer</code> for the rest.
+ *
+ * @file   LengthPrefixedDataLinkLayer.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class LengthPrefixedDataLinkLayer extends CodecDataLinkLayer {
+// =============================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The constructor.
+     */
+    public LengthPrefixedDataLinkLayer () {
+
+	super(SPEC);
+
+    } // LengthPrefixedDataLinkLayer ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** Frames of at most 64 data bytes, checked by CRC-32, behind a header. */
+    public static final String SPEC = "Chunk:64+CRC:CRC-32+Length";
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class LengthPrefixedDataLinkLayer
+// =============================================================================
@@ -0,0 +1,97 @@
+// =============================================================================
+/**
+ * One stage of a codec pipeline, such as a checksum, error correction, or
+ * interleaving, that transforms whole frames on their way out and undoes the
+ * transformation on their way in.  A stage keeps whatever working state it
+ * needs, so each direction of a link has its own instance.
+ *
+ * @file   LinkCodec.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public interface LinkCodec {
+// =============================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Create the named stage.
+     *
+     * @param  type     One of <code>CRC</code>, whose argument is a catalog
+     *                  name from <code>CrcSpec</code> (CRC-32 by default),
+     *                  <code>Generator</code>, whose argument is a CRC
+     *                  generator polynomial such as <code>0x1021</code>
+     *                  (that one by default), <code>Parity</code>, whose
+     *                  argument <code>2D</code> picks row and column
+     *                  parities, <code>RS</code>, whose argument is the
+     *                  number of Reed-Solomon parity bytes per codeword (8
+     *                  by default),
+     *                  <code>Interleave</code>, whose argument is the
+     *                  depth (8 by default), or <code>Deflate</code>, whose
+     *                  argument is the compression level (6 by default).
+     * @param  argument The stage's argument, or <code>null</code> for its
+     *                  default.
+     * @return The stage.
+     * @throws RuntimeException if the type is unknown.
+     */
+    public static LinkCodec create (String type, String argument) {
+
+	if (type.equals("CRC")) {
+	    return new CrcCodec((argument == null) ? "CRC-32" : argument);
+	} else if (type.equals("Generator")) {
+	    return new GeneratorCrcCodec((argument == null) ? 0x1021 : Integer.decode(argument));
+	} else if (type.equals("Parity")) {
+	    return new ParityCodec("2D".equals(argument));
+	} else if (type.equals("RS")) {
+	    return new ReedSolomonCodec((argument == null) ? 8 : Integer.parseInt(argument));
+	} else if (type.equals("Interleave")) {
+	    return new InterleaveCodec((argument == null) ? 8 : Integer.parseInt(argument));
+	} else if (type.equals("Deflate")) {
+	    return new DeflateCodec((argument == null) ? 6 : Integer.parseInt(argument));
+	}
+	throw new RuntimeException("Unknown codec stage " + type);
+
+    } // create ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Transform an outgoing frame.
+     *
+     * @param in  The frame, which the stage may overwrite.
+     * @param out The buffer into which to write the result, which is empty.
+     */
+    public void encode (CodecBuffer in, CodecBuffer out);
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Undo the transformation on an incoming frame.
+     *
+     * @param  in  The frame, which the stage may overwrite.
+     * @param  out The buffer into which to write the result, which is empty.
+     * @return Whether the frame survived; if not, it is dropped.
+     */
+    public boolean decode (CodecBuffer in, CodecBuffer out);
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @param  length The number of bytes in an outgoing frame.
+     * @return The most bytes the frame can take once transformed.
+     */
+    public int getMaxEncodedLength (int length);
+    // =========================================================================
+
+
+
+// =============================================================================
+} // interface LinkCodec
+// =============================================================================
@@ -0,0 +1,100 @@
+// =============================================================================
+/**
+ * The last stage of a codec pipeline, which marks where each frame begins
+ * and ends on the wire, and finds frames again among the received bytes.
+ * Like the other stages, each direction of a link has its own instance.
+ *
+ * @file   LinkFramer.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public interface LinkFramer {
+// =============================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Create the named framer.
+     *
+     * @param  type     One of <code>Tag</code>, for start, stop and escape
+     *                  tags, <code>COBS</code>, for consistent overhead byte
+     *                  stuffing, or <code>Length</code>, for a sync word and
+     *                  a length with a header CRC.  None takes an argument.
+     * @param  argument Must be <code>null</code>.
+     * @return The framer.
+     * @throws RuntimeException if the type is unknown, or given an argument.
+     */
+    public static LinkFramer create (String type, String argument) {
+
+	if (argument != null) {
+	    throw new RuntimeException("Framer " + type + " takes no argument");
+	}
+	if (type.equals("Tag")) {
+	    return new TagFramer();
+	} else if (type.equals("COBS")) {
+	    return new CobsFramer();
+	} else if (type.equals("Length")) {
+	    return new LengthFramer();
+	}
+	throw new RuntimeException("Unknown framer " + type);
+
+    } // create ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Frame outgoing content for the wire.
+     *
+     * @param in  The content, which the framer may overwrite.
+     * @param out The buffer into which to write the frame, which is empty.
+     */
+    public void frame (CodecBuffer in, CodecBuffer out);
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Take received bytes from a buffer until a frame is complete, or the
+     * buffer runs out.  Bytes that cannot belong to a frame are dropped.
+     *
+     * @param  buffer The received bytes.
+     * @param  out    The buffer into which to write a complete frame's
+     *                content, which is empty.
+     * @return Whether a frame was completed.
+     */
+    public boolean extract (ByteRingBuffer buffer, CodecBuffer out);
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Called once the later stages have checked the frame last extracted.
+     * A framer that left the frame's bytes in the buffer drops them now if
+     * the frame was intact, and otherwise drops only its first byte, so that
+     * a frame hidden inside a false one is found again.
+     *
+     * @param buffer The received bytes.
+     * @param intact Whether the frame survived every later stage.
+     */
+    public void release (ByteRingBuffer buffer, boolean intact);
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The most bytes of content a frame may hold.
+     */
+    public int getMaxContentLength ();
+    // =========================================================================
+
+
+
+// =============================================================================
+} // interface LinkFramer
+// =============================================================================
@@ -1,7 +1,6 @@
 // =============================================================================
 // IMPORTS
 
-import java.util.Iterator;
 import java.util.Random;
 // =============================================================================
 
@@ -9,7 +8,12 @@ import java.util.Random;
 
 // =============================================================================
 /**
- * A medium that occassionally flips a bit.
+ * A medium that occassionally flips a bit.  Each bit delivered to each
+ * receiver is flipped independently with a fixed probability.  Rather than
+ * drawing a random number per bit, the medium draws the number of clean bits
+ * until the next flip from the matching geometric distribution, so clean runs
+ * cost nothing and are passed through untouched.  Sequences of bits are
+ * carried packed, and copied only when a flip lands in them.
  *
  * @file   LowNoiseMedium.java
  * @author Scott F. Kaplan (sfkaplan@cs.amherst.edu)
@@ -26,9 +30,42 @@ public class LowNoiseMedium extends Medium {
 
 
 
+    // =========================================================================
+    /**
+     * The constructor, using the default error probability and seed.
+     */
     public LowNoiseMedium () {
-	random = new Random(5);
-    }
+
+	this(DEFAULT_ERROR_PROBABILITY, DEFAULT_SEED);
+
+    } // LowNoiseMedium ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The constructor.
+     *
+     * @param errorProbability The probability that any one delivered bit is
+     *                         flipped, from 0 to 1.
+     * @param seed             The seed for the random number generator.
+     * @throws RuntimeException if the probability is out of range.
+     */
+    public LowNoiseMedium (double errorProbability, long seed) {
+
+	if (!(errorProbability >= 0.0 && errorProbability <= 1.0)) {
+	    throw new RuntimeException("Invalid error probability " +
+				       errorProbability);
+	}
+	this.errorProbability = errorProbability;
+	this.random           = new Random(seed);
+	this.logCleanChance   = Math.log1p(-errorProbability);
+	this.bitsUntilFlip    = drawBitsUntilFlip();
+
+    } // LowNoiseMedium ()
+    // =========================================================================
+
 
 
     // =========================================================================
@@ -46,27 +83,83 @@ public class LowNoiseMedium extends Medium {
     public void transmit (PhysicalLayer sender, boolean bit) {
 
 	// Only registered clients may send.
-	if (!clients.contains(sender)) {
-	    throw new RuntimeException("Unregistered sender on the medium");
-	}
+	checkSender(sender);
 	
 	// Deliver the bit to each client that is not the sender.
-	Iterator<PhysicalLayer> clientIterator = clients.iterator();
-	while (clientIterator.hasNext()) {
-	    
-	    // With low probability, flip this bit.
-	    if (random.nextFloat() < errorProbability) {
-		if (debug) {
-		    System.out.println("LowNoiseMedium.transmit(): Flipped bit!");
+	PhysicalLayer[] receivers = clients;
+	for (int c = 0; c < receivers.length; c += 1) {
+
+	    PhysicalLayer receiver = receivers[c];
+	    if (receiver != sender) {
+
+		// Count down to the next flip.
+		boolean delivered = bit;
+		if (bitsUntilFlip == 0) {
+		    if (debug) {
+			System.out.println("LowNoiseMedium.transmit(): Flipped bit!");
+		    }
+		    delivered     = !bit;
+		    bitsUntilFlip = drawBitsUntilFlip();
+		} else {
+		    bitsUntilFlip -= 1;
 		}
-		bit = !bit;
+		receiver.receive(delivered);
+
 	    }
 
-	    PhysicalLayer receiver = clientIterator.next();
-	    if (receiver != sender) {
-		receiver.receive(bit);
+	}
+
+    } // transmit ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Send a sequence of packed bits from one client to the other clients.
+     * Each receiver whose share of the sequence falls within a clean run gets
+     * the sender's bits as they are; otherwise it gets a copy with the flips
+     * applied.
+     *
+     * @param sender The client physical layer sending the bits.
+     * @param bits   The bits to send.
+     * @throws RuntimeException if the sender is not registered with this
+     *                          medium.
+     */
+    public void transmit (PhysicalLayer sender, PackedBits bits) {
+
+	// Only registered clients may send.
+	checkSender(sender);
+
+	long length = bits.getLength();
+	PhysicalLayer[] receivers = clients;
+	for (int c = 0; c < receivers.length; c += 1) {
+
+	    PhysicalLayer receiver = receivers[c];
+	    if (receiver == sender) {
+		continue;
 	    }
 
+	    // A clean run covering every bit: pass the bits through.
+	    if (bitsUntilFlip >= length) {
+		bitsUntilFlip -= length;
+		receiver.receive(bits);
+		continue;
+	    }
+
+	    // Otherwise, flip each bit at which the countdown runs out.
+	    PackedBits noisy    = bits.copy();
+	    long       position = bitsUntilFlip;
+	    while (position < length) {
+		if (debug) {
+		    System.out.println("LowNoiseMedium.transmit(): Flipped bit!");
+		}
+		noisy.flip((int)position);
+		position += 1 + drawBitsUntilFlip();
+	    }
+	    bitsUntilFlip = position - length;
+	    receiver.receive(noisy);
+
 	}
 
     } // transmit ()
@@ -74,13 +167,51 @@ public class LowNoiseMedium extends Medium {
 
 
 
+    // =========================================================================
+    // PRIVATE METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Draw the number of clean bits before the next flip.  Inverting the
+     * geometric distribution's CDF turns one uniform draw into that count.
+     *
+     * @return The number of bits to deliver unchanged.
+     */
+    private long drawBitsUntilFlip () {
+
+	if (errorProbability <= 0.0) {
+	    return Long.MAX_VALUE;
+	} else if (errorProbability >= 1.0) {
+	    return 0;
+	}
+	double clean = Math.floor(Math.log1p(-random.nextDouble()) / logCleanChance);
+	return (clean >= Long.MAX_VALUE) ? Long.MAX_VALUE : (long)clean;
+
+    } // drawBitsUntilFlip ()
+    // =========================================================================
+
+
+
     // =========================================================================
     // DATA MEMBERS
 
     private Random random;
     
     // The probablity that a bit will flip.
-    private static final double errorProbability = 0.001;
+    private final double errorProbability;
+
+    // The log of the probability that a bit will not flip.
+    private final double logCleanChance;
+
+    // The number of bits still to deliver before the next flip.
+    private long bitsUntilFlip;
+
+    // The defaults used when none are given.
+    public static final double DEFAULT_ERROR_PROBABILITY = 0.001;
+    public static final long   DEFAULT_SEED              = 5;
     // =========================================================================
 
 
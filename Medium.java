@@ -1,9 +1,11 @@
 // =============================================================================
 // IMPORTS
 
-import java.util.Collection;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.Arrays;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 // =============================================================================
@@ -12,7 +14,12 @@ import java.lang.reflect.InvocationTargetException;
 
 // =============================================================================
 /**
- * A medium carries bits from one physical layer to others.
+ * A medium carries bits from one physical layer to others.  Each physical
+ * layer registered with a medium is given a dense integer id, its index in
+ * the medium's array of clients, so that checking a sender takes constant
+ * time however many clients there are.  The array is replaced, never
+ * modified, when a client registers, so a transmission can walk the array
+ * it started with while another client is being added.
  *
  * @file   Medium.java
  * @author Scott F. Kaplan (sfkaplan@cs.amherst.edu)
@@ -74,7 +81,7 @@ public abstract class Medium {
     // =========================================================================
     public Medium () {
 
-	clients = new LinkedList<PhysicalLayer>();
+	clients = new PhysicalLayer[0];
 
     } // Medium ()
     // =========================================================================
@@ -86,13 +93,35 @@ public abstract class Medium {
      * Register the given client as connected to the medium.  If the client is
      * already registered, do nothing (no multiple registrations).
      *
-     * @param client The physical layer of a stack to connect to this medium.
+     * @param  client The physical layer of a stack to connect to this medium.
+     * @throws RuntimeException if the client is registered with some other
+     *                          medium.
      */
     public void register (PhysicalLayer client) {
 
-	// Only add this client if it is not already registered.
-	if (!clients.contains(client)) {
-	    clients.add(client);
+	clientLock.lock();
+	try {
+
+	    // Only add this client if it is not already registered.
+	    if (isRegistered(client)) {
+		return;
+	    }
+	    if (client.getClientId() >= 0) {
+		throw new RuntimeException("Physical layer already registered " +
+					   "with another medium");
+	    }
+
+	    // The new client's id is its index in a copy of the array.
+	    PhysicalLayer[] grown = Arrays.copyOf(clients, clients.length + 1);
+	    grown[clients.length] = client;
+	    client.setClientId(clients.length);
+	    clients = grown;
+	    if (queueCapacity > 0) {
+		client.startReceiver(queueCapacity, threadFactory);
+	    }
+
+	} finally {
+	    clientLock.unlock();
 	}
 
     } // register ()
@@ -100,6 +129,157 @@ public abstract class Medium {
 
 
 
+    // =========================================================================
+    /**
+     * @param  client A physical layer.
+     * @return Whether the physical layer is registered with this medium.
+     */
+    public boolean isRegistered (PhysicalLayer client) {
+
+	PhysicalLayer[] registered = clients;
+	int             id         = client.getClientId();
+	return (id >= 0) && (id < registered.length) && (registered[id] == client);
+
+    } // isRegistered ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The number of physical layers registered with this medium.
+     */
+    public int getClientCount () {
+
+	return clients.length;
+
+    } // getClientCount ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Make this medium asynchronous: from now on, each registered physical
+     * layer queues what it receives, and a thread of its own hands it on up
+     * the stack.  A sender returns once its bits are queued, rather than once
+     * they have been received.  Layers registered later are set up the same
+     * way.  The receiver threads are daemon platform threads.
+     *
+     * A delivery that finds its queue full is set aside rather than waited
+     * on, since the sender is holding the medium.  Before its next
+     * transmission, a sender waits, with the medium released, until every
+     * layer has taken what was set aside.  A receiver thread never waits
+     * this way, so data link layers may send from their receiver threads, as
+     * ARQ layers do with ACK and NAK frames; each such send only sets aside
+     * what it transmits, up to as many deliveries as a queue holds.  Unlike
+     * synchronous delivery, queueing allocates: each delivery is a copy, or
+     * bits packed afresh, that the receiver thread can take in its own time.
+     *
+     * @param  queueCapacity The number of deliveries each queue holds before
+     *                       more are set aside, and the most set aside.
+     * @throws RuntimeException if the capacity is not positive.
+     */
+    public void setAsynchronous (int queueCapacity) {
+
+	setAsynchronous(queueCapacity, (Runnable task) -> {
+		Thread thread = new Thread(task);
+		thread.setDaemon(true);
+		return thread;
+	    });
+
+    } // setAsynchronous ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Make this medium asynchronous, as above, taking the receiver threads
+     * from the given factory.
+     *
+     * @param  queueCapacity The number of deliveries each queue holds before
+     *                       more are set aside, and the most set aside.
+     * @param  threadFactory The source of the receiver threads.
+     * @throws RuntimeException if the capacity is not positive.
+     */
+    public void setAsynchronous (int           queueCapacity,
+				 ThreadFactory threadFactory) {
+
+	if (queueCapacity < 1) {
+	    throw new RuntimeException("Invalid queue capacity " + queueCapacity);
+	}
+	clientLock.lock();
+	try {
+	    this.queueCapacity = queueCapacity;
+	    this.threadFactory = threadFactory;
+	    for (PhysicalLayer client : clients) {
+		client.startReceiver(queueCapacity, threadFactory);
+	    }
+	} finally {
+	    clientLock.unlock();
+	}
+
+    } // setAsynchronous ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return Whether this medium is asynchronous.
+     */
+    public boolean isAsynchronous () {
+
+	return queueCapacity > 0;
+
+    } // isAsynchronous ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Wait until everything sent so far has been received all the way up
+     * each stack.  If the medium is not asynchronous, that is already so.
+     *
+     * @throws RuntimeException if a receiving stack failed along the way.
+     */
+    public void drain () {
+
+	for (PhysicalLayer client : clients) {
+	    client.awaitIdle();
+	}
+
+    } // drain ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Drain the medium and stop its receiver threads, making it synchronous
+     * again.  Senders should have stopped first.
+     *
+     * @throws RuntimeException if a receiving stack failed along the way.
+     */
+    public void shutdown () {
+
+	clientLock.lock();
+	try {
+	    queueCapacity = 0;
+	    for (PhysicalLayer client : clients) {
+		client.stopReceiver();
+	    }
+	} finally {
+	    clientLock.unlock();
+	}
+
+    } // shutdown ()
+    // =========================================================================
+
+
+
     // =========================================================================
     // Send a bit from one physical layer to others.
     abstract public void transmit (PhysicalLayer sender, boolean bit);
@@ -107,14 +287,132 @@ public abstract class Medium {
 
 
 
+    // =========================================================================
+    /**
+     * Send a sequence of bytes from one physical layer to others.  By
+     * default, the bytes are packed into words and sent as packed bits.
+     * While the medium is synchronous, every receiver is done with those
+     * bits by the time the transmission ends, so they are packed into one
+     * buffer kept from each transmission to the next.  A transmission made
+     * from within another, by a receiving stack that replies at once, or
+     * one whose bits may wait in a receive queue, packs into a new buffer.
+     *
+     * @param sender The client physical layer sending the bytes.
+     * @param data   The buffer holding the bytes to send.
+     * @param offset The index of the first byte to send.
+     * @param length The number of bytes to send.
+     */
+    public void transmit (PhysicalLayer sender,
+			  byte[]        data,
+			  int           offset,
+			  int           length) {
+
+	if (queueCapacity > 0 || packing) {
+	    transmit(sender, PackedBits.fromBytes(data, offset, length));
+	    return;
+	}
+	packing = true;
+	try {
+	    packed.pack(data, offset, length);
+	    transmit(sender, packed);
+	} finally {
+	    packing = false;
+	}
+
+    } // transmit ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Send a sequence of packed bits from one physical layer to others.  By
+     * default, each bit is sent separately, in wire order, so that any
+     * subclass behaves exactly as it does for single bits; subclasses may
+     * override this to carry, and corrupt, the bits a word at a time.  The
+     * bits must not be modified; a subclass that corrupts them must do so on
+     * a copy.
+     *
+     * @param sender The client physical layer sending the bits.
+     * @param bits   The bits to send.
+     */
+    public void transmit (PhysicalLayer sender, PackedBits bits) {
+
+	for (int i = 0; i < bits.getLength(); i += 1) {
+	    transmit(sender, bits.getBit(i));
+	}
+
+    } // transmit ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // PROTECTED METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Check that a physical layer may send on this medium.
+     *
+     * @param  sender The client physical layer sending.
+     * @throws RuntimeException if the sender is not registered with this
+     *                          medium.
+     */
+    protected void checkSender (PhysicalLayer sender) {
+
+	if (!isRegistered(sender)) {
+	    throw new RuntimeException("Unregistered sender on the medium");
+	}
+
+    } // checkSender ()
+    // =========================================================================
+
+
+
     // =========================================================================
     // DATA MEMBERS
 
-    /** The physical layer clients connected to the medium. */
-    protected Collection<PhysicalLayer> clients;    
+    /** Held while clients register and while the medium changes mode. */
+    private final ReentrantLock clientLock = new ReentrantLock();
+
+    /** The physical layer clients connected to the medium, indexed by id. */
+    protected volatile PhysicalLayer[] clients;
+
+    /** The receive queue capacity if asynchronous, or <code>0</code> if not. */
+    private volatile int queueCapacity;
+
+    /** The source of receiver threads if asynchronous. */
+    private ThreadFactory threadFactory;
+
+    /**
+     * Held by a physical layer while it transmits, one at a time.  It is an
+     * explicit lock so that a virtual thread waiting for its turn does not
+     * pin its carrier.
+     */
+    final ReentrantLock transmitLock = new ReentrantLock();
+
+    /** The number of physical layers with deliveries set aside. */
+    final AtomicInteger overflowingClients = new AtomicInteger();
+
+    /** Signalled when no physical layer has deliveries set aside. */
+    final Condition roomAvailable = transmitLock.newCondition();
+
+    /**
+     * The buffer into which synchronous transmissions of bytes are packed,
+     * and whether one is using it.  Both are only touched while holding the
+     * transmit lock.
+     */
+    private final PackedBits packed  = new PackedBits(0);
+    private boolean          packing;
 
     /** Whether to emit debugging information. */
     protected static final boolean debug = false;
+
+    /** The number of bits in a byte. */
+    protected static final int BITS_PER_BYTE = DataLinkLayer.BITS_PER_BYTE;
     // =========================================================================
     
 
@@ -0,0 +1,380 @@
+// =============================================================================
+// IMPORTS
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+// =============================================================================
+
+
+
+// =============================================================================
+/**
+ * A sequence of bits in flight on a medium, packed 64 to a word.  Bits are
+ * stored in the order they go onto the wire, most significant first, so that
+ * bit <code>i</code> is bit <code>63 - (i % 64)</code> of word
+ * <code>i / 64</code>, and whole bytes keep their usual big-endian layout.
+ * Any bits of the final word beyond the length are always zero.
+ *
+ * A medium may hand the same sequence to several receivers, so receivers must
+ * treat what they are given as read-only; a medium that corrupts the bits
+ * does so on a copy.  A sequence that is never handed on past one
+ * transmission may be refilled with <code>pack()</code> for the next, so
+ * that a steady stream of transmissions packs without allocating.
+ *
+ * @file   PackedBits.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class PackedBits {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Pack a sequence of bytes, most significant bit first.
+     *
+     * @param  data   The buffer holding the bytes to pack.
+     * @param  offset The index of the first byte to pack.
+     * @param  length The number of bytes to pack.
+     * @return The packed bits.
+     */
+    public static PackedBits fromBytes (byte[] data, int offset, int length) {
+
+	PackedBits bits = new PackedBits(length * BITS_PER_BYTE);
+	bits.pack(data, offset, length);
+	return bits;
+
+    } // fromBytes ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Pack bits already laid out in words, most significant bit first.
+     *
+     * @param  words  The buffer holding the words; only as many as the length
+     *                needs are read.
+     * @param  length The number of bits.
+     * @return The packed bits, a copy independent of the buffer.
+     */
+    public static PackedBits fromWords (long[] words, int length) {
+
+	PackedBits bits = new PackedBits(length);
+	System.arraycopy(words, 0, bits.words, 0, bits.getWordCount());
+	int used = length % Long.SIZE;
+	if (used != 0) {
+	    bits.words[bits.words.length - 1] &= ~(-1L >>> used);
+	}
+	return bits;
+
+    } // fromWords ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The constructor.  Every bit starts as <code>0</code>.
+     *
+     * @param  length The number of bits.
+     * @throws RuntimeException if the length is negative.
+     */
+    public PackedBits (int length) {
+
+	if (length < 0) {
+	    throw new RuntimeException("Invalid bit length " + length);
+	}
+	this.length = length;
+	this.words  = new long[(length + Long.SIZE - 1) / Long.SIZE];
+
+    } // PackedBits ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return An independent copy of these bits.
+     */
+    public PackedBits copy () {
+
+	PackedBits copy = new PackedBits(length);
+	System.arraycopy(words, 0, copy.words, 0, copy.words.length);
+	return copy;
+
+    } // copy ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Replace these bits with a sequence of bytes, most significant bit
+     * first, growing the words only if they are too few.
+     *
+     * @param data   The buffer holding the bytes to pack.
+     * @param offset The index of the first byte to pack.
+     * @param length The number of bytes to pack.
+     */
+    public void pack (byte[] data, int offset, int length) {
+
+	int wordCount = (length + Long.BYTES - 1) / Long.BYTES;
+	if (wordCount > words.length) {
+	    words = new long[wordCount];
+	}
+	this.length = length * BITS_PER_BYTE;
+	int fullWords = length / Long.BYTES;
+
+	// Whole words go across eight bytes at a time.
+	ByteBuffer.wrap(data, offset, fullWords * Long.BYTES)
+	          .asLongBuffer()
+	          .get(words, 0, fullWords);
+
+	// The leftover bytes fill the top of the final word.
+	if (fullWords < wordCount) {
+	    words[fullWords] = 0;
+	}
+	for (int i = fullWords * Long.BYTES; i < length; i += 1) {
+	    int shift = Long.SIZE - BITS_PER_BYTE * (i % Long.BYTES + 1);
+	    words[fullWords] |= (data[offset + i] & 0xffL) << shift;
+	}
+
+    } // pack ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The number of bits.
+     */
+    public int getLength () {
+
+	return length;
+
+    } // getLength ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The number of words holding the bits.
+     */
+    public int getWordCount () {
+
+	return (length + Long.SIZE - 1) / Long.SIZE;
+
+    } // getWordCount ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @param  index The index of the word.
+     * @return The word, its first bit in the most significant position.
+     */
+    public long getWord (int index) {
+
+	return words[index];
+
+    } // getWord ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @param  index The index of the bit, in wire order.
+     * @return The value of the bit.
+     */
+    public boolean getBit (int index) {
+
+	return (words[index / Long.SIZE] & mask(index)) != 0;
+
+    } // getBit ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Invert one bit.
+     *
+     * @param index The index of the bit, in wire order.
+     */
+    public void flip (int index) {
+
+	words[index / Long.SIZE] ^= mask(index);
+
+    } // flip ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Invert every bit of one word that is set in a mask.  Mask bits that
+     * fall beyond the length are ignored.
+     *
+     * @param index The index of the word.
+     * @param mask  The bits to invert, aligned as the word is.
+     */
+    public void xorWord (int index, long mask) {
+
+	int used = length - index * Long.SIZE;
+	if (used < Long.SIZE) {
+	    mask &= ~(-1L >>> used);
+	}
+	words[index] ^= mask;
+
+    } // xorWord ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return Whether the bits make up a whole number of bytes.
+     */
+    public boolean isByteAligned () {
+
+	return length % BITS_PER_BYTE == 0;
+
+    } // isByteAligned ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Unpack the whole bytes among these bits, most significant bit first.
+     * Any bits after the last whole byte are left out.
+     *
+     * @return A new array holding the bytes.
+     */
+    public byte[] toBytes () {
+
+	byte[] data = new byte[length / BITS_PER_BYTE];
+	toBytes(data);
+	return data;
+
+    } // toBytes ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Unpack the whole bytes among these bits into a given array, as above.
+     *
+     * @param  data The array, which must hold at least
+     *              <code>getLength() / 8</code> bytes.
+     * @return The number of bytes unpacked.
+     */
+    public int toBytes (byte[] data) {
+
+	int length    = this.length / BITS_PER_BYTE;
+	int fullWords = length / Long.BYTES;
+
+	ByteBuffer.wrap(data, 0, fullWords * Long.BYTES)
+	          .asLongBuffer()
+	          .put(words, 0, fullWords);
+	for (int i = fullWords * Long.BYTES; i < length; i += 1) {
+	    int shift = Long.SIZE - BITS_PER_BYTE * (i % Long.BYTES + 1);
+	    data[i] = (byte)(words[fullWords] >>> shift);
+	}
+	return length;
+
+    } // toBytes ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return A read-only view of the words.
+     */
+    public LongBuffer asLongBuffer () {
+
+	return LongBuffer.wrap(words, 0, getWordCount()).slice().asReadOnlyBuffer();
+
+    } // asLongBuffer ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public boolean equals (Object other) {
+
+	if (!(other instanceof PackedBits)) {
+	    return false;
+	}
+	PackedBits that  = (PackedBits)other;
+	int        count = getWordCount();
+	return (length == that.length) &&
+	       Arrays.equals(words, 0, count, that.words, 0, count);
+
+    } // equals ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public int hashCode () {
+
+	int hash = length;
+	for (int i = 0; i < getWordCount(); i += 1) {
+	    hash = 31 * hash + Long.hashCode(words[i]);
+	}
+	return hash;
+
+    } // hashCode ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // PRIVATE METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    private static long mask (int index) {
+
+	return Long.MIN_VALUE >>> (index % Long.SIZE);
+
+    } // mask ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** The bits, 64 to a word, in as many words as the length needs or more. */
+    private long[] words;
+
+    /** The number of bits. */
+    private int    length;
+
+    /** The number of bits in a byte. */
+    private static final int BITS_PER_BYTE = DataLinkLayer.BITS_PER_BYTE;
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class PackedBits
+// =============================================================================
@@ -0,0 +1,319 @@
+// =============================================================================
+// IMPORTS
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+// =============================================================================
+
+
+
+// =============================================================================
+/**
+ * A codec stage that checks frames by even parity.  By default each frame
+ * carries one parity bit, which detects any odd number of flipped bits; in
+ * two-dimensional mode it carries a parity bit for every byte (row) and a
+ * parity byte over every bit position (column), which together locate, and so
+ * correct, a single flipped bit.  Parities are taken eight bytes at a time, on
+ * whole 64-bit words.
+ *
+ * @file   ParityCodec.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class ParityCodec implements LinkCodec {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The constructor.
+     *
+     * @param twoDimensional Whether to use row and column parities.
+     */
+    public ParityCodec (boolean twoDimensional) {
+
+	this.twoDimensional = twoDimensional;
+
+    } // ParityCodec ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The number of frames received with a single-bit error that was
+     *         corrected.
+     */
+    public long getCorrectedFrames () {
+
+	return correctedFrames;
+
+    } // getCorrectedFrames ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public void encode (CodecBuffer in, CodecBuffer out) {
+
+	int    length = in.getLength();
+	byte[] data   = in.getArray();
+	out.append(data, 0, length);
+
+	if (!twoDimensional) {
+	    // One bit that makes the parity of the whole frame even.
+	    out.append((byte)parity(data, 0, length));
+	} else {
+	    // The column parity, then one row parity bit per data byte, eight
+	    // to a byte.
+	    out.append(columnParity(data, 0, length));
+	    for (int row = 0; row < length; row += Long.BYTES) {
+		int count = Math.min(Long.BYTES, length - row);
+		out.append(rowParities(loadWord(data, row, count)));
+	    }
+	}
+
+    } // encode ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public boolean decode (CodecBuffer in, CodecBuffer out) {
+
+	int    length     = in.getLength();
+	byte[] frame      = in.getArray();
+	int    dataLength = twoDimensional ? dataLengthOf(length) : length - 1;
+	if (dataLength < 1) {
+	    return false;
+	}
+	boolean intact = twoDimensional ? checkTwoDimensional(frame, dataLength)
+	                                : parity(frame, 0, length) == 0;
+	if (intact) {
+	    out.append(frame, 0, dataLength);
+	}
+	return intact;
+
+    } // decode ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public int getMaxEncodedLength (int length) {
+
+	return length + 1 + (twoDimensional ? rowParityBytes(length) : 0);
+
+    } // getMaxEncodedLength ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // PRIVATE METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Check a frame of data, column parity and row parities, correcting its
+     * data in place if a single bit flipped.
+     *
+     * @return Whether the data is good, as received or once corrected.
+     */
+    private boolean checkTwoDimensional (byte[] frame, int dataLength) {
+
+	// Which bit positions disagree with the column parity...
+	int columnErrors = (columnParity(frame, 0, dataLength) ^ frame[dataLength]) & 0xff;
+
+	// ...and which bytes disagree with their row parity bits, and the
+	// first one that does.
+	int rowErrors = 0;
+	int badRow    = -1;
+	for (int row = 0; row < dataLength; row += Long.BYTES) {
+	    int count    = Math.min(Long.BYTES, dataLength - row);
+	    int mismatch = (rowParities(loadWord(frame, row, count)) ^
+			    frame[dataLength + 1 + row / Long.BYTES]) & 0xff;
+	    if (mismatch != 0 && badRow < 0) {
+		badRow = row + Integer.numberOfLeadingZeros(mismatch) - (Integer.SIZE - Byte.SIZE);
+	    }
+	    rowErrors += Integer.bitCount(mismatch);
+	}
+	int columnErrorCount = Integer.bitCount(columnErrors);
+
+	// Nothing wrong, or a single flipped bit among the parities
+	// themselves: the data is fine.
+	if (rowErrors + columnErrorCount <= 1) {
+	    return true;
+	}
+
+	// One row and one column disagree: the bit where they cross flipped.
+	if (rowErrors == 1 && columnErrorCount == 1 && badRow < dataLength) {
+	    frame[badRow] ^= (byte)columnErrors;
+	    correctedFrames += 1;
+	    System.err.println("[+] Corrected a single-bit error in byte " + badRow);
+	    return true;
+	}
+	return false;
+
+    } // checkTwoDimensional ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The number of data bytes in a two-dimensional frame of the
+     *         given length, or <code>-1</code> if no data length gives that
+     *         frame length.
+     */
+    private static int dataLengthOf (int frameLength) {
+
+	int dataLength = Math.max(0, (frameLength - 1) * Byte.SIZE / (Byte.SIZE + 1) - 1);
+	while (dataLength + 1 + rowParityBytes(dataLength) < frameLength) {
+	    dataLength += 1;
+	}
+	return (dataLength + 1 + rowParityBytes(dataLength) == frameLength) ? dataLength : -1;
+
+    } // dataLengthOf ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The number of bytes the row parity bits of so many data bytes
+     *         take.
+     */
+    private static int rowParityBytes (int dataLength) {
+
+	return (dataLength + Long.BYTES - 1) / Long.BYTES;
+
+    } // rowParityBytes ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Even parity of a run of bytes, 0 or 1.  p(a,b) = [p(a) + p(b)] mod 2,
+     * so XOR the bytes together a word at a time and count the ones left in
+     * the folded word.
+     */
+    private static int parity (byte[] data, int offset, int length) {
+
+	return Long.bitCount(fold(data, offset, length)) & 1;
+
+    } // parity ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Even parity of each bit position across a run of bytes: the bytes
+     * XORed together, a word at a time.
+     */
+    private static byte columnParity (byte[] data, int offset, int length) {
+
+	long folded = fold(data, offset, length);
+	folded ^= folded >>> 32;
+	folded ^= folded >>> 16;
+	folded ^= folded >>> 8;
+	return (byte)folded;
+
+    } // columnParity ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return A run of bytes XORed together eight at a time, the bytes left
+     *         over XORed into the low byte.
+     */
+    private static long fold (byte[] data, int offset, int length) {
+
+	long folded = 0;
+	int  i      = offset;
+	for (; i + Long.BYTES <= offset + length; i += Long.BYTES) {
+	    folded ^= (long)LONGS.get(data, i);
+	}
+	for (; i < offset + length; i += 1) {
+	    folded ^= data[i] & 0xff;
+	}
+	return folded;
+
+    } // fold ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Even parity of each of the eight bytes of a word, the first byte's in
+     * the most significant bit.  The parities are folded down into the low
+     * bit of each byte, then gathered into the top byte by a multiply that
+     * shifts byte j's bit up by 56 - 7j.
+     */
+    private static byte rowParities (long word) {
+
+	word ^= word >>> 4;
+	word ^= word >>> 2;
+	word ^= word >>> 1;
+	word &= 0x0101010101010101L;
+	return (byte)((word * 0x0102040810204080L) >>> 56);
+
+    } // rowParities ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return Up to eight bytes as a big-endian word, missing bytes zero.
+     */
+    private static long loadWord (byte[] data, int offset, int count) {
+
+	if (count == Long.BYTES) {
+	    return (long)LONGS.get(data, offset);
+	}
+	long word = 0;
+	for (int i = 0; i < count; i += 1) {
+	    word |= (data[offset + i] & 0xffL) << (Long.SIZE - Byte.SIZE * (i + 1));
+	}
+	return word;
+
+    } // loadWord ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** Reads eight bytes of an array at once as a big-endian word. */
+    private static final VarHandle LONGS =
+	MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    /** Whether frames carry row and column parities. */
+    private final boolean twoDimensional;
+
+    /** The number of frames corrected. */
+    private volatile long correctedFrames;
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class ParityCodec
+// =============================================================================
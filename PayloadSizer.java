@@ -0,0 +1,246 @@
+// =============================================================================
+/**
+ * Decides how many payload bytes to put in each frame.  In fixed mode, the
+ * size never changes.  In adaptive mode, the outcomes of recent frames are
+ * used to estimate the link's bit error rate <code>p</code>, and the size is
+ * set to the payload length <code>L</code> that maximizes goodput,
+ *
+ *     L / (L + h) * (1 - p)^(8 (L + h)),
+ *
+ * where <code>h</code> is the number of bytes of overhead per frame: large
+ * frames on clean links, where overhead dominates, and small frames on noisy
+ * ones, where whole frames are lost.
+ *
+ * The outcomes must be those of frames the sizer's own layer sent, so
+ * adaptive mode suits only layers that hear back about their frames, such as
+ * the ARQ layers with their acknowledgements.
+ *
+ * @file   PayloadSizer.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class PayloadSizer {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The constructor.  The sizer starts in fixed mode.
+     *
+     * @param payloadSize   The initial number of payload bytes per frame.
+     * @param overheadBytes The number of bytes each frame adds to its payload.
+     */
+    public PayloadSizer (int payloadSize, int overheadBytes) {
+
+	setFixed(payloadSize);
+	setOverhead(overheadBytes);
+
+    } // PayloadSizer ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Use the same payload size for every frame.
+     *
+     * @param  payloadSize The number of payload bytes per frame.
+     * @throws RuntimeException if the size is not positive.
+     */
+    public void setFixed (int payloadSize) {
+
+	if (payloadSize < 1) {
+	    throw new RuntimeException("Invalid payload size " + payloadSize);
+	}
+	this.payloadSize = payloadSize;
+	this.adaptive    = false;
+
+    } // setFixed ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Adapt the payload size to the observed frame-failure rate, keeping it
+     * within the given bounds.  Until enough frames have been observed, the
+     * current size is kept.
+     *
+     * @param  minSize The smallest payload size to use.
+     * @param  maxSize The largest payload size to use.
+     * @throws RuntimeException if the bounds are not a valid range.
+     */
+    public void setAdaptive (int minSize, int maxSize) {
+
+	if (minSize < 1 || maxSize < minSize) {
+	    throw new RuntimeException("Invalid payload size range " +
+				       minSize + "-" + maxSize);
+	}
+	this.minSize     = minSize;
+	this.maxSize     = maxSize;
+	this.payloadSize = Math.max(minSize, Math.min(maxSize, payloadSize));
+	this.adaptive    = true;
+	this.frames      = 0;
+	this.failures    = 0;
+	this.frameBits   = 0;
+
+    } // setAdaptive ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @param overheadBytes The number of bytes each frame adds to its payload,
+     *                      such as tags and checksums.
+     */
+    public void setOverhead (int overheadBytes) {
+
+	this.overheadBytes = Math.max(overheadBytes, 1);
+
+    } // setOverhead ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The number of payload bytes to put in the next frame.
+     */
+    public int getPayloadSize () {
+
+	return payloadSize;
+
+    } // getPayloadSize ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The current estimate of the probability that a bit is
+     *         corrupted, or <code>-1</code> if there is none yet.
+     */
+    public double getBitErrorRate () {
+
+	return bitErrorRate;
+
+    } // getBitErrorRate ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Record whether a frame arrived intact.  In adaptive mode, once a window
+     * of frames has been observed, the bit error rate estimate is updated and
+     * the payload size is recomputed.
+     *
+     * @param frameBytes The total number of bytes in the frame.
+     * @param intact     Whether the frame passed its checks.
+     */
+    public void recordFrame (int frameBytes, boolean intact) {
+
+	if (!adaptive) {
+	    return;
+	}
+
+	frames    += 1;
+	failures  += intact ? 0 : 1;
+	frameBits += (long)frameBytes * BITS_PER_BYTE;
+	if (frames < WINDOW) {
+	    return;
+	}
+
+	// Estimate p from the failure rate f over frames of B bits on average,
+	// since f = 1 - (1 - p)^B.  Counting half a failure keeps a clean
+	// window from concluding that the link is perfect.
+	double f        = (failures + 0.5) / (frames + 1.0);
+	double avgBits  = (double)frameBits / frames;
+	double estimate = 1.0 - Math.pow(1.0 - f, 1.0 / avgBits);
+	bitErrorRate = (bitErrorRate < 0) ? estimate
+	                                  : (bitErrorRate + estimate) / 2.0;
+
+	frames    = 0;
+	failures  = 0;
+	frameBits = 0;
+	payloadSize = optimalPayloadSize();
+
+    } // recordFrame ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // PRIVATE METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Setting the derivative of the log of the goodput to zero gives
+     * L^2 + hL - h/c = 0, where c = -8 ln(1 - p); take the positive root.
+     */
+    private int optimalPayloadSize () {
+
+	double c = -BITS_PER_BYTE * Math.log1p(-bitErrorRate);
+	if (c <= 0) {
+	    return maxSize;
+	}
+	double h = overheadBytes;
+	double L = (-h + Math.sqrt(h * h + 4.0 * h / c)) / 2.0;
+	return (int)Math.max(minSize, Math.min(maxSize, Math.round(L)));
+
+    } // optimalPayloadSize ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** The number of payload bytes per frame. */
+    private int     payloadSize;
+
+    /** The number of bytes each frame adds to its payload. */
+    private int     overheadBytes;
+
+    /** Whether the payload size adapts to the link. */
+    private boolean adaptive;
+
+    /** The bounds on the adapted payload size. */
+    private int     minSize;
+    private int     maxSize;
+
+    /** The frames observed in the current window. */
+    private int     frames;
+
+    /** The failed frames observed in the current window. */
+    private int     failures;
+
+    /** The total size, in bits, of the frames in the current window. */
+    private long    frameBits;
+
+    /** The estimated bit error rate, or <code>-1</code> if none yet. */
+    private double  bitErrorRate = -1;
+
+    /** The number of frames observed between estimates. */
+    private static final int WINDOW = 32;
+
+    /** The number of bits in a byte. */
+    private static final int BITS_PER_BYTE = DataLinkLayer.BITS_PER_BYTE;
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class PayloadSizer
+// =============================================================================
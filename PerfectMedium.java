@@ -1,12 +1,3 @@
-// =============================================================================
-// IMPORTS
-
-import java.util.Collection;
-import java.util.Iterator;
-// =============================================================================
-
-
-
 // =============================================================================
 /**
  * An ideal medium with no noise, errors, loss.
@@ -40,15 +31,13 @@ public class PerfectMedium extends Medium {
     public void transmit (PhysicalLayer sender, boolean bit) {
 
 	// Only registered clients may send.
-	if (!clients.contains(sender)) {
-	    throw new RuntimeException("Unregistered sender on the medium");
-	}
+	checkSender(sender);
 	
 	// Deliver the bit to each client that is not the sender.
-	Iterator<PhysicalLayer> clientIterator = clients.iterator();
-	while (clientIterator.hasNext()) {
-	    
-	    PhysicalLayer receiver = clientIterator.next();
+	PhysicalLayer[] receivers = clients;
+	for (int c = 0; c < receivers.length; c += 1) {
+
+	    PhysicalLayer receiver = receivers[c];
 	    if (receiver != sender) {
 		receiver.receive(bit);
 	    }
@@ -60,6 +49,73 @@ public class PerfectMedium extends Medium {
 
 
 
+    // =========================================================================
+    /**
+     * Send a sequence of bytes from one client to the other clients, handing
+     * each receiver the whole sequence at once.
+     *
+     * @param sender The client physical layer sending the bytes.
+     * @param data   The buffer holding the bytes to send.
+     * @param offset The index of the first byte to send.
+     * @param length The number of bytes to send.
+     * @throws RuntimeException if the sender is not registered with this
+     *                          medium.
+     */
+    public void transmit (PhysicalLayer sender,
+			  byte[]        data,
+			  int           offset,
+			  int           length) {
+
+	// Only registered clients may send.
+	checkSender(sender);
+
+	// Deliver the bytes to each client that is not the sender.
+	PhysicalLayer[] receivers = clients;
+	for (int c = 0; c < receivers.length; c += 1) {
+
+	    PhysicalLayer receiver = receivers[c];
+	    if (receiver != sender) {
+		receiver.receive(data, offset, length);
+	    }
+
+	}
+
+    } // transmit ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Send a sequence of packed bits from one client to the other clients,
+     * handing each receiver the same bits.
+     *
+     * @param sender The client physical layer sending the bits.
+     * @param bits   The bits to send.
+     * @throws RuntimeException if the sender is not registered with this
+     *                          medium.
+     */
+    public void transmit (PhysicalLayer sender, PackedBits bits) {
+
+	// Only registered clients may send.
+	checkSender(sender);
+
+	// Deliver the bits to each client that is not the sender.
+	PhysicalLayer[] receivers = clients;
+	for (int c = 0; c < receivers.length; c += 1) {
+
+	    PhysicalLayer receiver = receivers[c];
+	    if (receiver != sender) {
+		receiver.receive(bits);
+	    }
+
+	}
+
+    } // transmit ()
+    // =========================================================================
+
+
+
 // =============================================================================
 } // class PerfectMedium
 // =============================================================================
@@ -1,6 +1,36 @@
+// =============================================================================
+// IMPORTS
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+// =============================================================================
+
+
+
 // =============================================================================
 /**
- * Transmits bits across a medium.
+ * Transmits bits across a medium.  Normally, whatever the medium delivers is
+ * passed up to the client on the sender's thread.  When the medium is made
+ * asynchronous, each physical layer instead puts deliveries into a bounded
+ * queue that its own receiver thread drains, so that a sender can go on
+ * building frames while receivers are still checking earlier ones.
+ *
+ * Sends from different threads take turns on the medium, which carries one
+ * transmission at a time, and only the thread holding the medium delivers.
+ * Each queue therefore has a single producer at any moment, handed from
+ * sender to sender by the medium's lock, and a single consumer, its receiver
+ * thread.  Nothing waits for queue space while transmitting: a delivery that
+ * finds its queue full is set aside in a bounded overflow of the same size,
+ * which the receiver thread takes from once the queue is empty.  Before
+ * transmitting, a sender waits, with the medium released, until no layer has
+ * deliveries set aside.  Receiver threads, which may send control frames of
+ * their own, never wait, so that two receivers can not end up waiting on
+ * each other; a receiver thread that fills an overflow fails instead.
  * 
  * @file   PhysicalLayer.java
  * @author Scott F. Kaplan (sfkaplan@cs.amherst.edu)
@@ -82,7 +112,83 @@ public class PhysicalLayer {
      */
     public void send (boolean bit) {
 
-	medium.transmit(this, bit);
+	medium.transmitLock.lock();
+	try {
+	    awaitRoom();
+	    medium.transmit(this, bit);
+	} finally {
+	    medium.transmitLock.unlock();
+	}
+
+    } // send ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Send a sequence of a client's bytes via the medium in a single call.
+     * Bits go out most significant first, just as if each had been sent
+     * separately.
+     *
+     * @param data   The buffer holding the bytes to send.
+     * @param offset The index of the first byte to send.
+     * @param length The number of bytes to send.
+     */
+    public void send (byte[] data, int offset, int length) {
+
+	medium.transmitLock.lock();
+	try {
+	    awaitRoom();
+	    medium.transmit(this, data, offset, length);
+	} finally {
+	    medium.transmitLock.unlock();
+	}
+
+    } // send ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Send a sequence of packed bits via the medium in a single call.
+     *
+     * @param bits The bits to send, which must not be modified afterwards.
+     */
+    public void send (PackedBits bits) {
+
+	medium.transmitLock.lock();
+	try {
+	    awaitRoom();
+	    medium.transmit(this, bits);
+	} finally {
+	    medium.transmitLock.unlock();
+	}
+
+    } // send ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Send the remaining bytes of a buffer via the medium in a single call,
+     * consuming them from the buffer.
+     *
+     * @param data The buffer whose remaining bytes to send.
+     */
+    public void send (ByteBuffer data) {
+
+	int length = data.remaining();
+	if (data.hasArray()) {
+	    send(data.array(), data.arrayOffset() + data.position(), length);
+	    data.position(data.limit());
+	} else {
+	    byte[] copy = new byte[length];
+	    data.get(copy);
+	    send(copy, 0, length);
+	}
 
     } // send ()
     // =========================================================================
@@ -98,6 +204,11 @@ public class PhysicalLayer {
      */
     public void receive (boolean bit) {
 
+	if (inbox != null) {
+	    // The two shared Boolean instances, so that no bit allocates.
+	    enqueue(bit ? Boolean.TRUE : Boolean.FALSE);
+	    return;
+	}
 	client.receive(bit);
 
     }
@@ -105,12 +216,540 @@ public class PhysicalLayer {
 
 
 
+    // ===============================================================
+    /**
+     * Called by the medium to deliver a sequence of whole bytes, which are
+     * then in turn delivered to the client data link layer.  If they must be
+     * queued, they are copied first, since the sender may reuse its buffer.
+     *
+     * @param data   The buffer holding the received bytes.
+     * @param offset The index of the first received byte.
+     * @param length The number of received bytes.
+     */
+    public void receive (byte[] data, int offset, int length) {
+
+	if (inbox != null) {
+	    enqueue(Arrays.copyOfRange(data, offset, offset + length));
+	    return;
+	}
+	client.receive(data, offset, length);
+
+    }
+    // ===============================================================
+
+
+
+    // ===============================================================
+    /**
+     * Called by the medium to deliver a sequence of packed bits.  Whole bytes
+     * are handed to the client data link layer in one call; any other length
+     * is handed over a bit at a time.
+     *
+     * @param bits The bits received from the medium, which must not be
+     *             modified.
+     */
+    public void receive (PackedBits bits) {
+
+	if (inbox != null) {
+	    enqueue(bits);
+	    return;
+	}
+	deliver(bits);
+
+    }
+    // ===============================================================
+
+
+
+    // ===============================================================
+    /**
+     * @return The id given to this physical layer by its medium, or
+     *         <code>-1</code> if it is not registered.
+     */
+    public int getClientId () {
+
+	return clientId;
+
+    }
+    // ===============================================================
+
+
+
+    // ===============================================================
+    /**
+     * @return Whether deliveries to this layer are queued for a receiver
+     *         thread, rather than made on the sender's thread.
+     */
+    public boolean isAsynchronous () {
+
+	return inbox != null;
+
+    }
+    // ===============================================================
+
+
+
+    // ===============================================================
+    /**
+     * Called by the medium to give this physical layer its id.
+     *
+     * @param clientId The id.
+     */
+    void setClientId (int clientId) {
+
+	this.clientId = clientId;
+
+    }
+    // ===============================================================
+
+
+
+    // ===============================================================
+    /**
+     * Called by the medium to start queueing deliveries for a receiver
+     * thread of this layer's own.  If one is already running, do nothing.
+     *
+     * @param capacity      The number of deliveries the queue holds before
+     *                      more are set aside, and the most set aside.
+     * @param threadFactory The source of the receiver thread.
+     */
+    void startReceiver (int capacity, ThreadFactory threadFactory) {
+
+	queueLock.lock();
+	try {
+	    if (inbox != null) {
+		return;
+	    }
+	    SpscQueue<Object> queue = new SpscQueue<Object>(capacity);
+	    overflow       = new Object[capacity];
+	    overflowHead   = 0;
+	    overflowCount  = 0;
+	    stopping       = false;
+	    failure        = null;
+	    receiverThread = threadFactory.newThread(() -> runReceiver(queue));
+	    receiverThread.setName("PhysicalLayer-" + clientId + "-receiver");
+	    inbox = queue;
+	    receiverThread.start();
+	} finally {
+	    queueLock.unlock();
+	}
+
+    }
+    // ===============================================================
+
+
+
+    // ===============================================================
+    /**
+     * Called by the medium to wait until every queued delivery has been
+     * handed to the client.  Returns at once if nothing is queued.
+     *
+     * @throws RuntimeException if the client failed on a queued delivery.
+     */
+    void awaitIdle () {
+
+	queueLock.lock();
+	try {
+	    idleWaiters += 1;
+	    while (completed != enqueued) {
+		idleCondition.awaitUninterruptibly();
+	    }
+	    idleWaiters -= 1;
+	} finally {
+	    queueLock.unlock();
+	}
+	Throwable cause = failure;
+	if (cause != null) {
+	    failure = null;
+	    throw new RuntimeException("Receiver thread failed", cause);
+	}
+
+    }
+    // ===============================================================
+
+
+
+    // ===============================================================
+    /**
+     * Called by the medium, once senders have stopped, to hand over what is
+     * still queued and then stop the receiver thread.  Later deliveries go
+     * straight to the client again.
+     */
+    void stopReceiver () {
+
+	Thread thread;
+	queueLock.lock();
+	try {
+	    if (inbox == null) {
+		return;
+	    }
+	    thread = receiverThread;
+	} finally {
+	    queueLock.unlock();
+	}
+	try {
+	    awaitIdle();
+	} finally {
+	    queueLock.lock();
+	    try {
+		inbox          = null;
+		stopping       = true;
+		receiverThread = null;
+	    } finally {
+		queueLock.unlock();
+	    }
+	    LockSupport.unpark(thread);
+	    try {
+		thread.join();
+	    } catch (InterruptedException e) {
+		Thread.currentThread().interrupt();
+	    }
+	}
+
+    }
+    // ===============================================================
+
+
+
+    // ===============================================================
+    // PRIVATE METHODS
+    // ===============================================================
+
+
+
+    // ===============================================================
+    /**
+     * Hand packed bits to the client: whole bytes in one call, unpacked into
+     * a buffer kept from one delivery to the next, and any other length a
+     * bit at a time.  Deliveries to one layer are made one at a time, on the
+     * sender's thread or the receiver thread; one made from within another,
+     * when a synchronous reply comes straight back, unpacks into a new array.
+     */
+    private void deliver (PackedBits bits) {
+
+	if (bits.isByteAligned() && delivering) {
+	    byte[] data = bits.toBytes();
+	    client.receive(data, 0, data.length);
+	} else if (bits.isByteAligned()) {
+	    int needed = bits.getLength() / DataLinkLayer.BITS_PER_BYTE;
+	    if (unpacked.length < needed) {
+		unpacked = new byte[Math.max(needed, 2 * unpacked.length)];
+	    }
+	    delivering = true;
+	    try {
+		int length = bits.toBytes(unpacked);
+		client.receive(unpacked, 0, length);
+	    } finally {
+		delivering = false;
+	    }
+	} else {
+	    for (int i = 0; i < bits.getLength(); i += 1) {
+		client.receive(bits.getBit(i));
+	    }
+	}
+
+    }
+    // ===============================================================
+
+
+
+    // ===============================================================
+    /**
+     * Queue a delivery for the receiver thread.  The caller holds the medium,
+     * so it is the queue's only producer.  If the queue is full, or earlier
+     * deliveries are already set aside, set this one aside behind them
+     * instead of waiting.
+     *
+     * @throws RuntimeException if the overflow is full too.
+     */
+    private void enqueue (Object item) {
+
+	enqueued += 1;
+	if ((overflowing || !inbox.offer(item)) && !setAside(item)) {
+	    enqueued -= 1;
+	    throw new RuntimeException("Receive queue of client " + clientId +
+				       " overflowed; raise the queue capacity");
+	}
+	wakeReceiver();
+
+    }
+    // ===============================================================
+
+
+
+    // ===============================================================
+    /**
+     * Add a delivery to the end of the overflow.  Only senders that hold
+     * the medium add, and only the receiver thread takes.
+     *
+     * @return Whether there was room.
+     */
+    private boolean setAside (Object item) {
+
+	queueLock.lock();
+	try {
+	    if (overflowCount == overflow.length) {
+		return false;
+	    }
+	    overflow[(overflowHead + overflowCount) % overflow.length] = item;
+	    overflowCount += 1;
+	    if (!overflowing) {
+		overflowing = true;
+		medium.overflowingClients.incrementAndGet();
+	    }
+	    return true;
+	} finally {
+	    queueLock.unlock();
+	}
+
+    }
+    // ===============================================================
+
+
+
+    // ===============================================================
+    /**
+     * Wake the receiver thread if it has gone to sleep.  The fence keeps the
+     * check from being made before the delivery is published.
+     */
+    private void wakeReceiver () {
+
+	VarHandle.fullFence();
+	if (sleeping) {
+	    LockSupport.unpark(receiverThread);
+	}
+
+    }
+    // ===============================================================
+
+
+
+    // ===============================================================
+    /**
+     * Called by the receiver thread, once the queue is empty, to take the
+     * oldest delivery set aside.  Taking the last one lets waiting senders
+     * go on.
+     *
+     * @return The delivery, or <code>null</code> if none is set aside.
+     */
+    private Object takeSetAside () {
+
+	Object  item;
+	boolean drained;
+	queueLock.lock();
+	try {
+	    if (overflowCount == 0) {
+		return null;
+	    }
+	    item                   = overflow[overflowHead];
+	    overflow[overflowHead] = null;
+	    overflowHead           = (overflowHead + 1) % overflow.length;
+	    overflowCount         -= 1;
+	    drained                = (overflowCount == 0);
+	    if (drained) {
+		overflowing = false;
+	    }
+	} finally {
+	    queueLock.unlock();
+	}
+	if (drained && medium.overflowingClients.decrementAndGet() == 0) {
+	    medium.transmitLock.lock();
+	    try {
+		medium.roomAvailable.signalAll();
+	    } finally {
+		medium.transmitLock.unlock();
+	    }
+	}
+	return item;
+
+    }
+    // ===============================================================
+
+
+
+    // ===============================================================
+    /**
+     * Before a transmission, holding the medium, wait while any layer on the
+     * medium has deliveries set aside, so that a fast sender can not outrun
+     * its receivers.  The medium is released while waiting, so receiver
+     * threads can still send, and a transmission that finds no deliveries
+     * set aside sets aside at most one per layer.  Receiver threads do not
+     * wait: waiting on another receiver could wait forever.
+     */
+    private void awaitRoom () {
+
+	if (medium.overflowingClients.get() == 0 || onReceiverThread.get()) {
+	    return;
+	}
+	while (medium.overflowingClients.get() != 0) {
+	    medium.roomAvailable.awaitUninterruptibly();
+	}
+
+    }
+    // ===============================================================
+
+
+
+    // ===============================================================
+    /**
+     * The receiver thread's loop: take each delivery in turn and hand it to
+     * the client, until stopped with nothing left to take.  After spinning
+     * and yielding for a while on an empty queue, the thread sleeps until a
+     * sender wakes it, so that idle receivers cost nothing.
+     */
+    private void runReceiver (SpscQueue<Object> queue) {
+
+	onReceiverThread.set(Boolean.TRUE);
+	int idle = 0;
+	while (true) {
+
+	    // Everything in the queue is older than what is set aside, since
+	    // nothing is queued while anything is set aside.
+	    Object item = queue.poll();
+	    if (item == null && overflowing) {
+		item = takeSetAside();
+	    }
+	    if (item == null) {
+		if (stopping) {
+		    return;
+		}
+		if (idle < YIELD_LIMIT) {
+		    idle = backoff(idle);
+		    continue;
+		}
+		sleeping = true;
+		if (queue.isEmpty() && !overflowing && !stopping) {
+		    LockSupport.park(this);
+		}
+		sleeping = false;
+		continue;
+	    }
+	    idle = 0;
+
+	    // Keep going after a failure, so that waiters are not stranded;
+	    // the first failure is reported to them.
+	    try {
+		if (item instanceof byte[]) {
+		    byte[] data = (byte[])item;
+		    client.receive(data, 0, data.length);
+		} else if (item instanceof PackedBits) {
+		    deliver((PackedBits)item);
+		} else {
+		    client.receive(item == Boolean.TRUE);
+		}
+	    } catch (Throwable e) {
+		if (failure == null) {
+		    failure = e;
+		}
+	    }
+	    completed += 1;
+	    if (idleWaiters > 0 && completed == enqueued) {
+		queueLock.lock();
+		try {
+		    idleCondition.signalAll();
+		} finally {
+		    queueLock.unlock();
+		}
+	    }
+
+	}
+
+    }
+    // ===============================================================
+
+
+
+    // ===============================================================
+    /**
+     * Wait a little for the queue to fill: spin at first, then yield.
+     *
+     * @param  idle The number of times in a row this wait has been made.
+     * @return The count to pass next time.
+     */
+    private static int backoff (int idle) {
+
+	if (idle < SPIN_LIMIT) {
+	    Thread.onSpinWait();
+	} else {
+	    Thread.yield();
+	}
+	return idle + 1;
+
+    }
+    // ===============================================================
+
+
+
     // ===============================================================
     // DATA MEMBERS
 
     /** The medium to which this layer is connected. */
     private Medium medium;
 
+    /** The id given to this layer by its medium. */
+    private int clientId = -1;
+
+    /** The queue of deliveries, or <code>null</code> if not queueing. */
+    private volatile SpscQueue<Object> inbox;
+
+    /** The thread draining the queue. */
+    private Thread receiverThread;
+
+    /**
+     * Held while setting deliveries aside or taking them, while waiting for
+     * the queue to drain, and while starting or stopping the receiver
+     * thread.  An explicit lock, unlike a monitor, lets a waiting virtual
+     * thread give up its carrier.
+     */
+    private final ReentrantLock queueLock = new ReentrantLock();
+
+    /** Signalled when every queued delivery has been handed to the client. */
+    private final Condition idleCondition = queueLock.newCondition();
+
+    /** The number of threads waiting in <code>awaitIdle()</code>. */
+    private volatile int idleWaiters;
+
+    /**
+     * Deliveries set aside while the queue was full, oldest first, in a ring
+     * of the queue's capacity.
+     */
+    private Object[] overflow;
+    private int      overflowHead;
+    private int      overflowCount;
+
+    /** Whether any deliveries are set aside. */
+    private volatile boolean overflowing;
+
+    /** Whether the current thread is the receiver thread of some layer. */
+    private static final ThreadLocal<Boolean> onReceiverThread =
+	ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    /** Whether the receiver thread should stop once the queue is empty. */
+    private volatile boolean stopping;
+
+    /** Whether the receiver thread is, or is about to be, asleep. */
+    private volatile boolean sleeping;
+
+    /** The number of deliveries queued, and handed to the client. */
+    private volatile long enqueued;
+    private volatile long completed;
+
+    /** The first failure in the receiver thread not yet reported. */
+    private volatile Throwable failure;
+
+    /** How long to spin, and then yield, before the receiver sleeps. */
+    private static final int SPIN_LIMIT  = 100;
+    private static final int YIELD_LIMIT = 200;
+
+    /** The buffer into which packed bits are unpacked for the client. */
+    private byte[] unpacked = new byte[INITIAL_UNPACKED_LENGTH];
+
+    /** Whether the unpacking buffer is being handed to the client. */
+    private boolean delivering;
+
+    /** The bytes the unpacking buffer holds at first. */
+    private static final int INITIAL_UNPACKED_LENGTH = 64;
+
     /** The data link layer above this physical layer. */
     private DataLinkLayer client;
     // ===============================================================
@@ -0,0 +1,412 @@
+// =============================================================================
+// IMPORTS
+
+import java.util.Arrays;
+// =============================================================================
+
+
+
+// =============================================================================
+/**
+ * A Reed-Solomon code over GF(2^8), correcting up to half as many corrupted
+ * bytes per codeword as it has parity bytes.  A codeword is its message
+ * followed by its parity, read as a polynomial with the first byte as the
+ * highest coefficient; any length up to 255 bytes may be used, the code
+ * simply being shortened.
+ *
+ * Field arithmetic is table-driven: every non-zero element is a power of the
+ * generator 2 modulo x^8 + x^4 + x^3 + x^2 + 1, so multiplication and
+ * division reduce to adding and subtracting logarithms and looking up the
+ * result.  The exponent table is doubled in length so that sums of two
+ * logarithms need no reduction.  Decoding follows the usual route: syndromes,
+ * Berlekamp-Massey for the error locator, a Chien search for its roots, and
+ * Forney's formula for the error values.
+ *
+ * @file   ReedSolomonCode.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class ReedSolomonCode {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The constructor.
+     *
+     * @param  parityBytes The number of parity bytes per codeword.
+     * @throws RuntimeException if the number is not from 1 to 254.
+     */
+    public ReedSolomonCode (int parityBytes) {
+
+	if (parityBytes < 1 || parityBytes >= FIELD_SIZE - 1) {
+	    throw new RuntimeException("Invalid parity length " + parityBytes);
+	}
+	this.parityBytes = parityBytes;
+
+	// The generator polynomial is the product of (x - 2^i) for each
+	// syndrome, highest coefficient first.
+	int[] generator = new int[parityBytes + 1];
+	generator[0] = 1;
+	for (int i = 0; i < parityBytes; i += 1) {
+	    for (int j = i + 1; j > 0; j -= 1) {
+		generator[j] ^= multiply(generator[j - 1], EXP[i]);
+	    }
+	}
+
+	// Encoding multiplies by every coefficient of the generator but the
+	// leading one, and computing syndromes by every root, so tabulate the
+	// products of each with every element.
+	// The tables are flat, one row of FIELD_SIZE products after another.
+	generatorProducts = new byte[parityBytes * FIELD_SIZE];
+	rootProducts      = new byte[parityBytes * FIELD_SIZE];
+	for (int i = 0; i < parityBytes; i += 1) {
+	    for (int x = 0; x < FIELD_SIZE; x += 1) {
+		generatorProducts[i * FIELD_SIZE + x] = (byte)multiply(generator[i + 1], x);
+		rootProducts[i * FIELD_SIZE + x]      = (byte)multiply(EXP[i], x);
+	    }
+	}
+
+	syndromes = new int[parityBytes];
+	locator   = new int[parityBytes + 1];
+	previous  = new int[parityBytes + 1];
+	scratch   = new int[parityBytes + 1];
+	evaluator = new int[parityBytes];
+	positions = new int[parityBytes];
+
+    } // ReedSolomonCode ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The number of parity bytes per codeword.
+     */
+    public int getParityBytes () {
+
+	return parityBytes;
+
+    } // getParityBytes ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The most corrupted bytes a codeword can be corrected for.
+     */
+    public int getCorrectableBytes () {
+
+	return parityBytes / 2;
+
+    } // getCorrectableBytes ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Compute the parity for a message: the remainder of the message, shifted
+     * up by the parity length, divided by the generator.
+     *
+     * @param message      The buffer holding the message.
+     * @param offset       The index of the first message byte.
+     * @param length       The number of message bytes.
+     * @param parity       The buffer into which to write the parity.
+     * @param parityOffset The index at which to write it.
+     * @throws RuntimeException if the codeword would be too long.
+     */
+    public void encode (byte[] message,
+			int    offset,
+			int    length,
+			byte[] parity,
+			int    parityOffset) {
+
+	if (length + parityBytes >= FIELD_SIZE) {
+	    throw new RuntimeException("Invalid message length " + length);
+	}
+
+	int last = parityOffset + parityBytes - 1;
+	Arrays.fill(parity, parityOffset, last + 1, (byte)0);
+	for (int i = offset; i < offset + length; i += 1) {
+
+	    // Shift the remainder along, dividing out the new leading term.
+	    int feedback = (message[i] ^ parity[parityOffset]) & 0xff;
+	    int row      = feedback;
+	    for (int j = parityOffset; j < last; j += 1) {
+		parity[j] = (byte)(parity[j + 1] ^ generatorProducts[row]);
+		row      += FIELD_SIZE;
+	    }
+	    parity[last] = generatorProducts[row];
+
+	}
+
+    } // encode ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Correct a codeword in place, if it can be.  Not thread-safe: each
+     * thread decoding at once needs a code of its own.
+     *
+     * @param  codeword The buffer holding the codeword.
+     * @param  offset   The index of the first byte of the codeword.
+     * @param  length   The number of bytes in the codeword, parity included.
+     * @return The number of bytes corrected, or <code>-1</code> if there were
+     *         too many errors to correct.
+     * @throws RuntimeException if the length is out of range.
+     */
+    public int decode (byte[] codeword, int offset, int length) {
+
+	if (length <= parityBytes || length >= FIELD_SIZE) {
+	    throw new RuntimeException("Invalid codeword length " + length);
+	}
+
+	// The syndromes are the codeword evaluated at each root of the
+	// generator, and are all zero for an intact codeword.
+	Arrays.fill(syndromes, 0);
+	for (int j = offset; j < offset + length; j += 1) {
+	    int value = codeword[j] & 0xff;
+	    int row   = 0;
+	    for (int i = 0; i < parityBytes; i += 1) {
+		syndromes[i] = (rootProducts[row + syndromes[i]] & 0xff) ^ value;
+		row         += FIELD_SIZE;
+	    }
+	}
+	boolean intact = true;
+	for (int i = 0; i < parityBytes; i += 1) {
+	    intact &= (syndromes[i] == 0);
+	}
+	if (intact) {
+	    return 0;
+	}
+
+	int errors = findLocator();
+	if (errors > getCorrectableBytes()) {
+	    return -1;
+	}
+
+	// Chien search: an error at power p of x leaves 2^-p a root of the
+	// locator.
+	int found = 0;
+	for (int p = 0; p < length && found <= errors; p += 1) {
+	    if (evaluate(locator, errors, EXP[(FIELD_SIZE - 1 - p) % (FIELD_SIZE - 1)]) == 0) {
+		if (found == errors) {
+		    return -1;
+		}
+		positions[found++] = p;
+	    }
+	}
+	if (found != errors) {
+	    return -1;
+	}
+
+	// The evaluator is the syndromes times the locator, truncated.
+	for (int i = 0; i < parityBytes; i += 1) {
+	    int value = 0;
+	    for (int j = 0; j <= Math.min(i, errors); j += 1) {
+		value ^= multiply(locator[j], syndromes[i - j]);
+	    }
+	    evaluator[i] = value;
+	}
+
+	// Forney: each error value is X * evaluator(1/X) / locator'(1/X).
+	for (int k = 0; k < errors; k += 1) {
+	    int p       = positions[k];
+	    int inverse = EXP[(FIELD_SIZE - 1 - p) % (FIELD_SIZE - 1)];
+	    int top     = evaluate(evaluator, parityBytes - 1, inverse);
+	    int bottom  = 0;
+	    for (int i = 1; i <= errors; i += 2) {
+		bottom ^= multiply(locator[i], power(inverse, i - 1));
+	    }
+	    if (bottom == 0) {
+		return -1;
+	    }
+	    int value = multiply(EXP[p], divide(top, bottom));
+	    codeword[offset + length - 1 - p] ^= (byte)value;
+	}
+	return errors;
+
+    } // decode ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // PRIVATE METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Berlekamp-Massey: find the shortest error locator, lowest coefficient
+     * first, that generates the syndromes.
+     *
+     * @return The degree of the locator, which is the number of errors.
+     */
+    private int findLocator () {
+
+	Arrays.fill(locator, 0);
+	Arrays.fill(previous, 0);
+	locator[0]  = 1;
+	previous[0] = 1;
+	int degree  = 0;
+	int shift   = 1;
+	int last    = 1;
+
+	for (int n = 0; n < parityBytes; n += 1) {
+
+	    int discrepancy = syndromes[n];
+	    for (int i = 1; i <= degree; i += 1) {
+		discrepancy ^= multiply(locator[i], syndromes[n - i]);
+	    }
+	    if (discrepancy == 0) {
+		shift += 1;
+		continue;
+	    }
+
+	    int scale = divide(discrepancy, last);
+	    if (2 * degree <= n) {
+		System.arraycopy(locator, 0, scratch, 0, locator.length);
+		subtractShifted(scale, shift);
+		degree = n + 1 - degree;
+		System.arraycopy(scratch, 0, previous, 0, previous.length);
+		last  = discrepancy;
+		shift = 1;
+	    } else {
+		subtractShifted(scale, shift);
+		shift += 1;
+	    }
+
+	}
+	return degree;
+
+    } // findLocator ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Subtract the previous locator, scaled and shifted up, from the current
+     * one.
+     */
+    private void subtractShifted (int scale, int shift) {
+
+	for (int i = 0; i + shift < locator.length; i += 1) {
+	    locator[i + shift] ^= multiply(scale, previous[i]);
+	}
+
+    } // subtractShifted ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Evaluate a polynomial, lowest coefficient first, by Horner's rule.
+     */
+    private static int evaluate (int[] polynomial, int degree, int x) {
+
+	int value = 0;
+	for (int i = degree; i >= 0; i -= 1) {
+	    value = multiply(value, x) ^ polynomial[i];
+	}
+	return value;
+
+    } // evaluate ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    private static int multiply (int a, int b) {
+
+	return (a == 0 || b == 0) ? 0 : EXP[LOG[a] + LOG[b]];
+
+    } // multiply ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    private static int divide (int a, int b) {
+
+	return (a == 0) ? 0 : EXP[LOG[a] + (FIELD_SIZE - 1) - LOG[b]];
+
+    } // divide ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    private static int power (int a, int n) {
+
+	return (n == 0) ? 1 : EXP[(LOG[a] * n) % (FIELD_SIZE - 1)];
+
+    } // power ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** The number of elements in the field. */
+    private static final int   FIELD_SIZE = 256;
+
+    /** The polynomial that reduces products back into the field. */
+    private static final int   PRIMITIVE  = 0x11d;
+
+    /** The powers of the generator, doubled in length, and their inverse. */
+    private static final int[] EXP        = new int[2 * FIELD_SIZE];
+    private static final int[] LOG        = new int[FIELD_SIZE];
+
+    static {
+	int x = 1;
+	for (int i = 0; i < FIELD_SIZE - 1; i += 1) {
+	    EXP[i] = x;
+	    LOG[x] = i;
+	    x    <<= 1;
+	    if (x >= FIELD_SIZE) {
+		x ^= PRIMITIVE;
+	    }
+	}
+	for (int i = FIELD_SIZE - 1; i < EXP.length; i += 1) {
+	    EXP[i] = EXP[i - (FIELD_SIZE - 1)];
+	}
+    }
+
+    /** The number of parity bytes per codeword. */
+    private final int   parityBytes;
+
+    /** The products of each of the generator's coefficients but the
+     *  leading one, and of each of its roots, with every element. */
+    private final byte[] generatorProducts;
+    private final byte[] rootProducts;
+
+    /** The decoder's working polynomials and error positions. */
+    private final int[] syndromes;
+    private final int[] locator;
+    private final int[] previous;
+    private final int[] scratch;
+    private final int[] evaluator;
+    private final int[] positions;
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class ReedSolomonCode
+// =============================================================================
@@ -0,0 +1,113 @@
+// =============================================================================
+/**
+ * A codec stage that protects each frame with Reed-Solomon parity.  The frame
+ * is cut into blocks of at most <code>255 - parity</code> bytes, and each
+ * block is followed by its parity; the last block is simply shortened.  The
+ * receiver works out the same blocks from the length of what arrives,
+ * corrects each one in place, and drops the frame if any block has too many
+ * errors.
+ *
+ * @file   ReedSolomonCodec.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class ReedSolomonCodec implements LinkCodec {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The constructor.
+     *
+     * @param parityBytes The number of parity bytes per block, half of which
+     *                    is the number of bad bytes it can correct.
+     */
+    public ReedSolomonCodec (int parityBytes) {
+
+	code        = new ReedSolomonCode(parityBytes);
+	this.parity = parityBytes;
+	blockData   = MAX_CODEWORD - parityBytes;
+
+    } // ReedSolomonCodec ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public void encode (CodecBuffer in, CodecBuffer out) {
+
+	int length = in.getLength();
+	int blocks = (length + blockData - 1) / blockData;
+	out.setLength(length + blocks * parity);
+	byte[] source = in.getArray();
+	byte[] array  = out.getArray();
+	int    at     = 0;
+	for (int start = 0; start < length; start += blockData) {
+	    int count = Math.min(blockData, length - start);
+	    System.arraycopy(source, start, array, at, count);
+	    code.encode(array, at, count, array, at + count);
+	    at += count + parity;
+	}
+
+    } // encode ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public boolean decode (CodecBuffer in, CodecBuffer out) {
+
+	int    length = in.getLength();
+	byte[] array  = in.getArray();
+	for (int start = 0; start < length; start += MAX_CODEWORD) {
+	    int count = Math.min(MAX_CODEWORD, length - start);
+	    if (count <= parity || code.decode(array, start, count) < 0) {
+		return false;
+	    }
+	    out.append(array, start, count - parity);
+	}
+	return true;
+
+    } // decode ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public int getMaxEncodedLength (int length) {
+
+	return length + ((length + blockData - 1) / blockData) * parity;
+
+    } // getMaxEncodedLength ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** The longest codeword over GF(2^8). */
+    private static final int MAX_CODEWORD = 255;
+
+    /** The code. */
+    private final ReedSolomonCode code;
+
+    /** The number of parity bytes per block. */
+    private final int parity;
+
+    /** The most data bytes per block. */
+    private final int blockData;
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class ReedSolomonCodec
+// =============================================================================
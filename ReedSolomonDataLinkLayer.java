@@ -0,0 +1,244 @@
+// =============================================================================
+// IMPORTS
+
+import java.util.zip.Checksum;
+// =============================================================================
+
+
+
+// =============================================================================
+/**
+ * A data link layer that corrects errors rather than only detecting them, by
+ * forward error correction with a Reed-Solomon code.  Data is cut into
+ * fixed-length codewords, each a length byte and up to 21 data bytes padded
+ * out to 22, a CRC-16 over those 22 bytes, and then 8 parity bytes; any 4
+ * corrupted bytes in a codeword are corrected in place, however many of
+ * their bits are flipped, so short bursts are corrected as readily as single
+ * bits.
+ *
+ * With more than 4 corrupted bytes, decoding often lands on some other valid
+ * codeword and reports success.  The CRC, checked after correction, catches
+ * those, so that wrong data is dropped rather than delivered.
+ *
+ * Because every codeword is the same length, no tags are needed to find
+ * them: the medium flips bits but never loses or adds them, so the receiver
+ * simply decodes every 32 bytes as they arrive.  That also means that no
+ * single flipped bit can cost a whole frame by hitting a tag.  A codeword
+ * with too many errors to correct is reported and dropped.
+ *
+ * @file   ReedSolomonDataLinkLayer.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class ReedSolomonDataLinkLayer extends DataLinkLayer {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The number of codewords received with errors that were
+     *         corrected.
+     */
+    public long getCorrectedCodewords () {
+
+	return correctedCodewords;
+
+    } // getCorrectedCodewords ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The number of codewords dropped for having too many errors,
+     *         whether decoding gave up or its correction failed the CRC.
+     */
+    public long getDroppedCodewords () {
+
+	return droppedCodewords;
+
+    } // getDroppedCodewords ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // PROTECTED METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Cut the data into codewords, each one's message being the number of
+     * data bytes it carries, those bytes padded with zeros, and their CRC.
+     *
+     * @param  data The raw sequence of bytes to be framed.
+     * @return The codewords, one after another.
+     */
+    protected byte[] createFrame (byte[] data) {
+
+	int    count     = (data.length + DATA_BYTES - 1) / DATA_BYTES;
+	byte[] codewords = new byte[count * CODEWORD_BYTES];
+	for (int c = 0; c < count; c += 1) {
+
+	    int start  = c * CODEWORD_BYTES;
+	    int length = Math.min(DATA_BYTES, data.length - c * DATA_BYTES);
+	    codewords[start] = (byte)length;
+	    System.arraycopy(data, c * DATA_BYTES, codewords, start + 1, length);
+	    sendChecksum.reset();
+	    sendChecksum.update(codewords, start, CHECKED_BYTES);
+	    putCrc(codewords, start + CHECKED_BYTES, sendChecksum.getValue());
+	    encoder.encode(codewords, start, MESSAGE_BYTES,
+			   codewords, start + MESSAGE_BYTES);
+
+	}
+	return codewords;
+
+    } // createFrame ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Once a whole codeword has arrived, correct it, check the result against
+     * its CRC, and return its data.
+     *
+     * @return The data the codeword carries, if it could be corrected;
+     *         <code>null</code> otherwise.
+     */
+    protected byte[] processFrame () {
+
+	if (byteBuffer.size() < CODEWORD_BYTES) {
+	    return null;
+	}
+	byteBuffer.copyTo(0, codeword, 0, CODEWORD_BYTES);
+	byteBuffer.discard(CODEWORD_BYTES);
+
+	int corrected = decoder.decode(codeword, 0, CODEWORD_BYTES);
+	int length    = codeword[0] & 0xff;
+	if (corrected < 0 || length > DATA_BYTES) {
+	    droppedCodewords += 1;
+	    System.err.println("[-] Uncorrectable codeword dropped");
+	    return null;
+	}
+	receiveChecksum.reset();
+	receiveChecksum.update(codeword, 0, CHECKED_BYTES);
+	if (receiveChecksum.getValue() != getCrc(codeword, CHECKED_BYTES)) {
+	    droppedCodewords += 1;
+	    System.err.println("[-] Miscorrected codeword dropped");
+	    return null;
+	}
+	if (corrected > 0) {
+	    correctedCodewords += 1;
+	    if (debug) {
+		System.out.println("ReedSolomonDataLinkLayer.processFrame(): " +
+				   "Corrected " + corrected + " bytes");
+	    }
+	}
+	if (length == 0) {
+	    return null;
+	}
+
+	byte[] data = new byte[length];
+	System.arraycopy(codeword, 1, data, 0, length);
+	return data;
+
+    } // processFrame ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // PRIVATE METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Write a CRC into an array, most significant byte first.
+     */
+    private static void putCrc (byte[] array, int offset, long crc) {
+
+	for (int i = 0; i < CRC_BYTES; i += 1) {
+	    array[offset + i] = (byte)(crc >>> ((CRC_BYTES - 1 - i) * BITS_PER_BYTE));
+	}
+
+    } // putCrc ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The CRC written into an array, most significant byte first.
+     */
+    private static long getCrc (byte[] array, int offset) {
+
+	long crc = 0;
+	for (int i = 0; i < CRC_BYTES; i += 1) {
+	    crc = (crc << BITS_PER_BYTE) | (array[offset + i] & 0xff);
+	}
+	return crc;
+
+    } // getCrc ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** The number of parity bytes per codeword. */
+    private static final int PARITY_BYTES   = 8;
+
+    /** The number of bytes in a codeword's message: a length, data, and a
+     *  CRC of both. */
+    private static final int MESSAGE_BYTES  = 24;
+
+    /** The CRC that catches miscorrected codewords. */
+    private static final CrcSpec CRC_SPEC   = CrcSpec.CRC_16_CCITT;
+
+    /** The number of bytes the CRC takes. */
+    private static final int CRC_BYTES      = CRC_SPEC.getNumOfBytes();
+
+    /** The number of bytes the CRC covers: the length and the data. */
+    private static final int CHECKED_BYTES  = MESSAGE_BYTES - CRC_BYTES;
+
+    /** The most data bytes per codeword. */
+    private static final int DATA_BYTES     = CHECKED_BYTES - 1;
+
+    /** The number of bytes in a codeword. */
+    private static final int CODEWORD_BYTES = MESSAGE_BYTES + PARITY_BYTES;
+
+    /** The codes for sending and receiving, which may be on different
+     *  threads, and so each need their own. */
+    private final ReedSolomonCode encoder = new ReedSolomonCode(PARITY_BYTES);
+    private final ReedSolomonCode decoder = new ReedSolomonCode(PARITY_BYTES);
+
+    /** The CRCs for sending and receiving, for the same reason. */
+    private final Checksum sendChecksum    = CRC_SPEC.newChecksum();
+    private final Checksum receiveChecksum = CRC_SPEC.newChecksum();
+
+    /** The codeword being decoded. */
+    private final byte[] codeword = new byte[CODEWORD_BYTES];
+
+    /** Counts of codewords corrected and dropped. */
+    private volatile long correctedCodewords;
+    private volatile long droppedCodewords;
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class ReedSolomonDataLinkLayer
+// =============================================================================
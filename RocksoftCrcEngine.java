@@ -0,0 +1,203 @@
+// =============================================================================
+// IMPORTS
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Checksum;
+// =============================================================================
+
+
+
+// =============================================================================
+/**
+ * Computes any CRC described by a <code>CrcSpec</code>, up to 64 bits wide,
+ * one table lookup per byte.  Unreflected algorithms keep the register
+ * aligned to the top of a <code>long</code> so that every width shares the
+ * same update step; reflected algorithms keep it at the bottom.  Tables are
+ * built once per algorithm and shared by every checksum that uses it.
+ *
+ * @file   RocksoftCrcEngine.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class RocksoftCrcEngine implements Checksum {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The constructor.
+     *
+     * @param spec The algorithm to compute.
+     */
+    public RocksoftCrcEngine (CrcSpec spec) {
+
+	this.spec  = spec;
+	this.shift = spec.refIn ? 0 : Long.SIZE - spec.width;
+	this.table = tableFor(spec);
+	reset();
+
+    } // RocksoftCrcEngine ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public void update (int b) {
+
+	if (spec.refIn) {
+	    register = table[(int)(register ^ b) & 0xff] ^ (register >>> 8);
+	} else {
+	    register = table[(int)((register >>> 56) ^ b) & 0xff] ^ (register << 8);
+	}
+
+    } // update ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public void update (byte[] b, int off, int len) {
+
+	long reg = register;
+	int  end = off + len;
+	if (spec.refIn) {
+	    for (int i = off; i < end; i += 1) {
+		reg = table[(int)(reg ^ b[i]) & 0xff] ^ (reg >>> 8);
+	    }
+	} else {
+	    for (int i = off; i < end; i += 1) {
+		reg = table[(int)((reg >>> 56) ^ b[i]) & 0xff] ^ (reg << 8);
+	    }
+	}
+	register = reg;
+
+    } // update ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public long getValue () {
+
+	long value = spec.refIn ? register : register >>> shift;
+	if (spec.refIn != spec.refOut) {
+	    value = Long.reverse(value) >>> (Long.SIZE - spec.width);
+	}
+	return (value ^ spec.xorOut) & widthMask(spec.width);
+
+    } // getValue ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public void reset () {
+
+	long init = spec.init & widthMask(spec.width);
+	register = spec.refIn ? reflect(init, spec.width) : init << shift;
+
+    } // reset ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // PRIVATE METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Return the table for an algorithm, building it on first use.
+     */
+    private static synchronized long[] tableFor (CrcSpec spec) {
+
+	long[] table = tables.get(spec);
+	if (table != null) {
+	    return table;
+	}
+
+	table = new long[256];
+	long poly = spec.poly & widthMask(spec.width);
+	if (spec.refIn) {
+	    long reflectedPoly = reflect(poly, spec.width);
+	    for (int i = 0; i < table.length; i += 1) {
+		long crc = i;
+		for (int bit = 0; bit < 8; bit += 1) {
+		    crc = ((crc & 1) != 0) ? (crc >>> 1) ^ reflectedPoly : crc >>> 1;
+		}
+		table[i] = crc;
+	    }
+	} else {
+	    long alignedPoly = poly << (Long.SIZE - spec.width);
+	    for (int i = 0; i < table.length; i += 1) {
+		long crc = (long)i << 56;
+		for (int bit = 0; bit < 8; bit += 1) {
+		    crc = (crc < 0) ? (crc << 1) ^ alignedPoly : crc << 1;
+		}
+		table[i] = crc;
+	    }
+	}
+
+	tables.put(spec, table);
+	return table;
+
+    } // tableFor ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    private static long reflect (long value, int width) {
+
+	return Long.reverse(value) >>> (Long.SIZE - width);
+
+    } // reflect ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    private static long widthMask (int width) {
+
+	return (width == Long.SIZE) ? -1L : (1L << width) - 1;
+
+    } // widthMask ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** The tables built so far, keyed by algorithm. */
+    private static final Map<CrcSpec, long[]> tables =
+	new HashMap<CrcSpec, long[]>();
+
+    /** The algorithm being computed. */
+    private final CrcSpec spec;
+
+    /** The table for that algorithm. */
+    private final long[]  table;
+
+    /** How far an unreflected register is shifted up within a long. */
+    private final int     shift;
+
+    /** The CRC register. */
+    private long          register;
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class RocksoftCrcEngine
+// =============================================================================
@@ -0,0 +1,153 @@
+// =============================================================================
+/**
+ * A sliding-window data link layer using Selective Repeat.  The receiver
+ * holds on to frames that arrive ahead of a gap, acknowledging each one, and
+ * delivers them in order once the gap is filled.  The sender resends only
+ * the frames that are NAKed or time out, never ones already acknowledged.
+ *
+ * @file   SelectiveRepeatDataLinkLayer.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class SelectiveRepeatDataLinkLayer extends ArqDataLinkLayer {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PROTECTED METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return Half the number of sequence numbers, so that the sender's
+     *         window and the receiver's can never overlap.
+     */
+    protected int getMaxWindowSize () {
+
+	return RECEIVE_WINDOW;
+
+    } // getMaxWindowSize ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Resend each unacknowledged frame whose own timer has run out.
+     *
+     * @param now The current time, from <code>System.nanoTime()</code>.
+     */
+    protected void handleTimeout (long now) {
+
+	for (int i = 0; i < outstanding(); i += 1) {
+	    int seq = (getSendBase() + i) & SEQUENCE_MASK;
+	    if (!isAcked(seq) && hasExpired(seq, now)) {
+		markForResend(seq);
+	    }
+	}
+
+    } // handleTimeout ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Resend just the missing frame.
+     *
+     * @param seq The sequence number the receiver is missing.
+     */
+    protected void handleNak (int seq) {
+
+	if (isOutstanding(seq) && !isAcked(seq)) {
+	    markForResend(seq);
+	}
+
+    } // handleNak ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Acknowledge the one frame named by an ACK, even if it is beyond a gap.
+     *
+     * @param seq The sequence number of the frame that prompted the ACK.
+     */
+    protected void handleAck (int seq) {
+
+	if (isOutstanding(seq)) {
+	    acknowledge(seq);
+	}
+
+    } // handleAck ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Hold on to a frame within the receive window, and deliver the frames
+     * from the expected one up to the next gap.  Every frame is acknowledged,
+     * including duplicates of ones already delivered, whose ACK may have been
+     * lost; a frame beyond a gap also draws a NAK for the gap.
+     *
+     * @param  seq   The sequence number of the frame.
+     * @param  frame The frame's type, sequence number, payload and CRC.
+     * @return The payloads now in order, joined; <code>null</code> if none.
+     */
+    protected byte[] acceptData (int seq, byte[] frame) {
+
+	int ahead = distance(getReceiveNext(), seq);
+	if (ahead >= RECEIVE_WINDOW) {
+	    sendAck(seq);
+	    return null;
+	}
+	if (held[seq] == null) {
+	    held[seq] = frame;
+	}
+	if (ahead != 0) {
+	    sendAck(seq);
+	    sendNak();
+	    return null;
+	}
+
+	// The gap is filled: deliver everything up to the next one.
+	int length = 0;
+	for (int next = seq; held[next] != null; next = (next + 1) & SEQUENCE_MASK) {
+	    length += payloadLength(held[next]);
+	}
+	byte[] data   = new byte[length];
+	int    offset = 0;
+	while (held[getReceiveNext()] != null) {
+	    copyPayload(held[getReceiveNext()], data, offset);
+	    offset                 += payloadLength(held[getReceiveNext()]);
+	    held[getReceiveNext()]  = null;
+	    advanceReceiveNext();
+	}
+	sendAck(seq);
+	return data;
+
+    } // acceptData ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** The number of sequence numbers the receiver accepts ahead. */
+    private static final int RECEIVE_WINDOW = SEQUENCE_SPACE / 2;
+
+    /** The frames received ahead of a gap, by sequence number. */
+    private final byte[][]   held           = new byte[SEQUENCE_SPACE][];
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class SelectiveRepeatDataLinkLayer
+// =============================================================================
@@ -36,12 +36,13 @@ public class Simulator {
     public static void main (String[] args) {
 
 	// Check the number of arguments passed.
-	if (args.length != 3) {
+	if (args.length != 3 && !(args.length == 4 && args[3].equals("async"))) {
 
 	    System.err.println("Usage: java Simulator "  +
 			       "<medium type> "          +
 			       "<data link layer type> " +
-			       "<transmission data file>");
+			       "<transmission data file> " +
+			       "[async]");
 	    System.exit(1);
 
 	}
@@ -53,6 +54,9 @@ public class Simulator {
 
 	// Create the medium, then the sender and receiver.
 	Medium medium   = Medium.create(mediumType);
+	if (args.length == 4) {
+	    medium.setAsynchronous(ASYNC_QUEUE_CAPACITY);
+	}
 	Host   sender   = new Host(medium, dataLinkLayerType);
 	Host   receiver = new Host(medium, dataLinkLayerType);
 
@@ -60,7 +64,7 @@ public class Simulator {
 	byte[] dataToTransmit = readFile(transmissionPath);
 
 	// Perform the simulation!
-	simulate(sender, receiver, dataToTransmit);
+	simulate(medium, sender, receiver, dataToTransmit);
 
     } // main
     // =========================================================================
@@ -110,13 +114,19 @@ public class Simulator {
      * receiver.  Verify that the receiver fully receives the complete and
      * correct data.
      *
+     * @param medium   The medium connecting the hosts.
      * @param sender   The sending host.
      * @param receiver The receiving host.
      * @param data     The data to be sent.
      */
-    private static void simulate (Host sender, Host receiver, byte[] data) {
+    private static void simulate (Medium medium,
+				  Host   sender,
+				  Host   receiver,
+				  byte[] data) {
 
 	sender.send(data);
+	sender.flush();
+	medium.shutdown();
 	byte[] received = receiver.retrieve();
 	System.out.println("Transmission sent: " + new String(data));
 	System.out.println("Transmission received:  " + new String(received));
@@ -128,6 +138,15 @@ public class Simulator {
 
 
 
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** The number of deliveries each receiver queues when asynchronous. */
+    private static final int ASYNC_QUEUE_CAPACITY = 1024;
+    // =========================================================================
+
+
+
 // =============================================================================
 } // class Simulator
 // =============================================================================
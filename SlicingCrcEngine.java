@@ -0,0 +1,208 @@
+// =============================================================================
+// IMPORTS
+
+import java.util.HashMap;
+import java.util.Map;
+// =============================================================================
+
+
+
+// =============================================================================
+/**
+ * Computes CRC remainders several bytes per step ("slicing-by-N").  Table
+ * <code>k</code> holds the remainder of each byte value shifted up by
+ * <code>k</code> bytes, so a block of N bytes, together with the remainder
+ * carried in from earlier blocks, is reduced with one lookup per byte and no
+ * dependency between the lookups.  Whatever does not fill a whole block is
+ * finished with the single-table engine.
+ *
+ * @file   SlicingCrcEngine.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class SlicingCrcEngine implements CrcEngine {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Return the slicing engine for the given generator and block size,
+     * building its tables the first time they are requested.
+     *
+     * @param  generator The generator polynomial, including its leading term.
+     * @param  slices    The number of bytes handled per step.
+     * @return The engine.
+     * @throws RuntimeException if the generator is unsupported, or if the
+     *                          number of slices is not positive.
+     */
+    public static synchronized SlicingCrcEngine forGenerator (int generator,
+							      int slices) {
+
+	if (slices <= 0) {
+	    throw new RuntimeException("Invalid slice count " + slices);
+	}
+	long             key    = ((generator & 0xffffffffL) << 8) | slices;
+	SlicingCrcEngine engine = cache.get(key);
+	if (engine == null) {
+	    engine = new SlicingCrcEngine(generator, slices);
+	    cache.put(key, engine);
+	}
+	return engine;
+
+    } // forGenerator ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public int remainder (byte[] data, int offset, int length, int lastByteBits) {
+
+	if (length == 0) {
+	    return 0;
+	}
+
+	// The final byte may be partial, so whole blocks stop short of it.
+	int  last      = offset + length - 1;
+	int  i         = offset;
+	long remainder = 0;
+	while (i + slices <= last) {
+
+	    // The carried remainder lies beyond the block, one table per byte.
+	    long next = 0;
+	    for (int j = 0; j < remainderBytes; j += 1) {
+		int b = (int)(remainder >>> (j * BITS_PER_BYTE)) & 0xff;
+		next ^= tables[((slices + j) << 8) | b];
+	    }
+
+	    // The block's first byte is shifted furthest.
+	    for (int k = 0; k < slices; k += 1) {
+		next ^= tables[((slices - 1 - k) << 8) | (data[i + k] & 0xff)];
+	    }
+
+	    remainder  = next;
+	    i         += slices;
+
+	}
+
+	remainder = byteEngine.update(remainder, data, i, last);
+	return (int)byteEngine.finish(remainder, data[last], lastByteBits);
+
+    } // remainder ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public int update (int remainder, byte value, int significantBits) {
+
+	return byteEngine.update(remainder, value, significantBits);
+
+    } // update ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public int getDegree () {
+
+	return degree;
+
+    } // getDegree ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // PRIVATE METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The constructor.  Build one table per byte position in a block, plus
+     * one per byte of the carried remainder.
+     *
+     * @param generator The generator polynomial, including its leading term.
+     * @param slices    The number of bytes handled per step.
+     */
+    private SlicingCrcEngine (int generator, int slices) {
+
+	this.byteEngine     = TableCrcEngine.forGenerator(generator);
+	this.degree         = byteEngine.getDegree();
+	this.slices         = slices;
+	this.remainderBytes = Math.max(1, (degree + BITS_PER_BYTE - 1) /
+				          BITS_PER_BYTE);
+
+	int  tableCount = slices + remainderBytes;
+	long poly       = generator & 0xffffffffL;
+	tables = new long[tableCount << 8];
+	for (int b = 0; b < 256; b += 1) {
+	    long value = reduce(b, poly);
+	    for (int k = 0; k < tableCount; k += 1) {
+		tables[(k << 8) | b] = value;
+		value = reduce(value << BITS_PER_BYTE, poly);
+	    }
+	}
+
+    } // SlicingCrcEngine ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Reduce a value of at most <code>degree + 8</code> bits by the generator.
+     */
+    private long reduce (long value, long poly) {
+
+	for (int bit = degree + BITS_PER_BYTE - 1; bit >= degree; bit -= 1) {
+	    if ((value & (1L << bit)) != 0) {
+		value ^= poly << (bit - degree);
+	    }
+	}
+	return value;
+
+    } // reduce ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** The engines built so far, keyed by generator and slice count. */
+    private static final Map<Long, SlicingCrcEngine> cache =
+	new HashMap<Long, SlicingCrcEngine>();
+
+    /** The shifted remainder tables, 256 entries each, laid end to end. */
+    private final long[]         tables;
+
+    /** The single-table engine that finishes partial blocks. */
+    private final TableCrcEngine byteEngine;
+
+    /** The degree of the generator. */
+    private final int            degree;
+
+    /** The number of bytes handled per step. */
+    private final int            slices;
+
+    /** The number of bytes spanned by a remainder. */
+    private final int            remainderBytes;
+
+    /** The number of bits in a byte. */
+    private static final int BITS_PER_BYTE = DataLinkLayer.BITS_PER_BYTE;
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class SlicingCrcEngine
+// =============================================================================
@@ -0,0 +1,182 @@
+// =============================================================================
+// IMPORTS
+
+import java.util.concurrent.atomic.AtomicLong;
+// =============================================================================
+
+
+
+// =============================================================================
+/**
+ * A bounded, lock-free queue for exactly one producer thread and one consumer
+ * thread.  Items sit in a circular array indexed by two ever-increasing
+ * counters: the producer alone advances the tail, and the consumer alone
+ * advances the head.  Each side publishes its counter with an ordered store
+ * and keeps a cached copy of the other side's, rereading it only when the
+ * queue looks full or empty.
+ *
+ * Neither method blocks; the caller decides how to wait when an offer or a
+ * poll fails.
+ *
+ * @file   SpscQueue.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class SpscQueue<E> {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The constructor.
+     *
+     * @param  capacity The least number of items the queue must hold, which
+     *                  is rounded up to a power of two.
+     * @throws RuntimeException if the capacity is not positive.
+     */
+    public SpscQueue (int capacity) {
+
+	if (capacity < 1 || capacity > MAX_CAPACITY) {
+	    throw new RuntimeException("Invalid queue capacity " + capacity);
+	}
+	int size = Integer.highestOneBit(capacity);
+	if (size < capacity) {
+	    size <<= 1;
+	}
+	items = new Object[size];
+	mask  = size - 1;
+
+    } // SpscQueue ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Add an item at the tail.  Only the producer thread may call this.
+     *
+     * @param  item The item to add, which must not be <code>null</code>.
+     * @return Whether there was room for the item.
+     */
+    public boolean offer (E item) {
+
+	long t = tail.get();
+	if (t - headCache >= items.length) {
+	    headCache = head.get();
+	    if (t - headCache >= items.length) {
+		return false;
+	    }
+	}
+	items[(int)t & mask] = item;
+	tail.lazySet(t + 1);
+	return true;
+
+    } // offer ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Remove the item at the head.  Only the consumer thread may call this.
+     *
+     * @return The item, or <code>null</code> if the queue is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public E poll () {
+
+	long h = head.get();
+	if (h >= tailCache) {
+	    tailCache = tail.get();
+	    if (h >= tailCache) {
+		return null;
+	    }
+	}
+	int index  = (int)h & mask;
+	E   item   = (E)items[index];
+	items[index] = null;
+	head.lazySet(h + 1);
+	return item;
+
+    } // poll ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The number of items in the queue, which may already be stale
+     *         when seen from any thread but the producer or consumer.
+     */
+    public int size () {
+
+	return (int)(tail.get() - head.get());
+
+    } // size ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return Whether the queue is empty.
+     */
+    public boolean isEmpty () {
+
+	return size() == 0;
+
+    } // isEmpty ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The number of items the queue can hold.
+     */
+    public int capacity () {
+
+	return items.length;
+
+    } // capacity ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** The items, in a circular array whose length is a power of two. */
+    private final Object[]   items;
+
+    /** The length of the array less one, for wrapping the counters. */
+    private final int        mask;
+
+    /** The number of items ever removed, advanced by the consumer. */
+    private final AtomicLong head = new AtomicLong();
+
+    /** The number of items ever added, advanced by the producer. */
+    private final AtomicLong tail = new AtomicLong();
+
+    /** The producer's last look at the head. */
+    private long             headCache;
+
+    /** The consumer's last look at the tail. */
+    private long             tailCache;
+
+    /** The largest capacity that can be rounded up to a power of two. */
+    private static final int MAX_CAPACITY = 1 << 30;
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class SpscQueue
+// =============================================================================
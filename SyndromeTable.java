@@ -0,0 +1,158 @@
+// =============================================================================
+// IMPORTS
+
+import java.util.HashMap;
+import java.util.Map;
+// =============================================================================
+
+
+
+// =============================================================================
+/**
+ * Finds the bit that a single-bit error flipped from the syndrome it leaves,
+ * such as a CRC remainder.  Any one flipped bit leaves a syndrome of its own,
+ * so a table from syndromes to bit positions, built once per frame length,
+ * names the bit.  A syndrome that several positions share names none.
+ *
+ * An error of several bits can leave the same syndrome as a single one, so a
+ * caller should check the frame again once the bit is flipped back.
+ *
+ * @file   SyndromeTable.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class SyndromeTable {
+// =============================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Builds the table for frames of one length.
+     */
+    public interface Builder {
+
+	/**
+	 * @param  frameLength The number of bytes in the frame.
+	 * @return The table from each single-bit error's syndrome to its
+	 *         position, filled in with <code>add()</code>.
+	 */
+	public Map<Long, Integer> build (int frameLength);
+
+    } // interface Builder
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The constructor.
+     *
+     * @param builder The source of a table for each frame length.
+     */
+    public SyndromeTable (Builder builder) {
+
+	this.builder = builder;
+
+    } // SyndromeTable ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @param  frameLength The number of bytes in the frame.
+     * @param  syndrome    The syndrome the frame left.
+     * @return The position of the one bit whose flip leaves that syndrome, or
+     *         <code>-1</code> if there is no such bit, or more than one.
+     */
+    public int locate (int frameLength, long syndrome) {
+
+	Map<Long, Integer> table = tables.get(frameLength);
+	if (table == null) {
+	    table = builder.build(frameLength);
+	    tables.put(frameLength, table);
+	}
+	Integer position = table.get(syndrome);
+	return (position == null) ? AMBIGUOUS : position;
+
+    } // locate ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Forget every table built so far, as when the syndromes change.
+     */
+    public void clear () {
+
+	tables.clear();
+
+    } // clear ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Record the syndrome of a flip at the given position, marking it as
+     * naming no bit if another position leaves it too.
+     *
+     * @param table    The table being built.
+     * @param syndrome The syndrome.
+     * @param position The position of the flipped bit.
+     */
+    public static void add (Map<Long, Integer> table, long syndrome, int position) {
+
+	if (table.putIfAbsent(syndrome, position) != null) {
+	    table.put(syndrome, AMBIGUOUS);
+	}
+
+    } // add ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Flip one bit of a frame.  Bits are numbered from the start of the
+     * frame, most significant bit of each byte first.
+     *
+     * @param frame    The frame.
+     * @param position The position of the bit.
+     */
+    public static void flipBit (byte[] frame, int position) {
+
+	frame[position / Byte.SIZE] ^= (byte)(0x80 >>> (position % Byte.SIZE));
+
+    } // flipBit ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** The position given to a syndrome that names no single bit. */
+    public static final int AMBIGUOUS = -1;
+
+    /** The source of tables. */
+    private final Builder builder;
+
+    /** The tables built so far, by frame length. */
+    private final Map<Integer, Map<Long, Integer>> tables =
+	new HashMap<Integer, Map<Long, Integer>>();
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class SyndromeTable
+// =============================================================================
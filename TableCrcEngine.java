@@ -0,0 +1,199 @@
+// =============================================================================
+// IMPORTS
+
+import java.util.HashMap;
+import java.util.Map;
+// =============================================================================
+
+
+
+// =============================================================================
+/**
+ * Computes CRC remainders a byte at a time using a precomputed 256-entry table
+ * for a single generator.  The result is exactly the remainder that
+ * bit-by-bit long division by the generator would leave, where the degree of
+ * the generator is the position of its highest set bit.  Tables are built
+ * once per generator and shared.
+ *
+ * @file   TableCrcEngine.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class TableCrcEngine implements CrcEngine {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Return the table engine for the given generator, building its table the
+     * first time that generator is requested.
+     *
+     * @param  generator The generator polynomial, including its leading term.
+     * @return The engine for that generator.
+     * @throws RuntimeException if the generator has no terms, or is too wide
+     *                          to be divided with <code>long</code> arithmetic.
+     */
+    public static synchronized TableCrcEngine forGenerator (int generator) {
+
+	TableCrcEngine engine = cache.get(generator);
+	if (engine == null) {
+	    engine = new TableCrcEngine(generator);
+	    cache.put(generator, engine);
+	}
+	return engine;
+
+    } // forGenerator ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public int remainder (byte[] data, int offset, int length, int lastByteBits) {
+
+	if (length == 0) {
+	    return 0;
+	}
+	int  last      = offset + length - 1;
+	long remainder = update(0, data, offset, last);
+	return (int)finish(remainder, data[last], lastByteBits);
+
+    } // remainder ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public int update (int remainder, byte value, int significantBits) {
+
+	return (int)finish(remainder & 0xffffffffL, value, significantBits);
+
+    } // update ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public int getDegree () {
+
+	return degree;
+
+    } // getDegree ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Continue a division with whole bytes.  Each byte is shifted in below
+     * the remainder, and the (at most eight) bits that overflow past the
+     * degree are reduced via the table.
+     *
+     * @param  remainder The remainder so far.
+     * @param  data      The buffer holding the bytes to divide.
+     * @param  from      The index of the first byte to divide.
+     * @param  to        The index just past the last byte to divide.
+     * @return The remainder after those bytes.
+     */
+    long update (long remainder, byte[] data, int from, int to) {
+
+	for (int i = from; i < to; i += 1) {
+	    long shifted = (remainder << BITS_PER_BYTE) | (data[i] & 0xff);
+	    remainder = table[(int)(shifted >>> degree)] ^ (shifted & mask);
+	}
+	return remainder;
+
+    } // update ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Finish a division with the significant (upper) bits of a final byte.
+     * The overflow is smaller than a byte, so the same table applies.
+     *
+     * @param  remainder The remainder so far.
+     * @param  lastByte  The final byte.
+     * @param  bits      The number of significant bits in that byte.
+     * @return The remainder of the whole division.
+     */
+    long finish (long remainder, byte lastByte, int bits) {
+
+	int  value   = (lastByte & 0xff) >>> (BITS_PER_BYTE - bits);
+	long shifted = (remainder << bits) | value;
+	return table[(int)(shifted >>> degree)] ^ (shifted & mask);
+
+    } // finish ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // PRIVATE METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The constructor.  Build the table, where entry <code>t</code> holds the
+     * remainder of <code>t</code> shifted up past the degree of the generator.
+     *
+     * @param generator The generator polynomial, including its leading term.
+     */
+    private TableCrcEngine (int generator) {
+
+	degree = Integer.SIZE - Integer.numberOfLeadingZeros(generator) - 1;
+	if (degree < 0 || degree > Long.SIZE - BITS_PER_BYTE - 1) {
+	    throw new RuntimeException("Unsupported generator " + generator);
+	}
+	mask = (1L << degree) - 1;
+
+	long poly = generator & 0xffffffffL;
+	for (int t = 0; t < table.length; t += 1) {
+	    long dividend = (long)t << degree;
+	    for (int bit = degree + BITS_PER_BYTE - 1; bit >= degree; bit -= 1) {
+		if ((dividend & (1L << bit)) != 0) {
+		    dividend ^= poly << (bit - degree);
+		}
+	    }
+	    table[t] = dividend;
+	}
+
+    } // TableCrcEngine ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** The engines built so far, keyed by generator. */
+    private static final Map<Integer, TableCrcEngine> cache =
+	new HashMap<Integer, TableCrcEngine>();
+
+    /** The remainder of each possible overflow byte. */
+    private final long[] table = new long[256];
+
+    /** The degree of the generator. */
+    private final int    degree;
+
+    /** A mask selecting the bits below the degree. */
+    private final long   mask;
+
+    /** The number of bits in a byte. */
+    private static final int BITS_PER_BYTE = DataLinkLayer.BITS_PER_BYTE;
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class TableCrcEngine
+// =============================================================================
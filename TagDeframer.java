@@ -0,0 +1,188 @@
+// =============================================================================
+// IMPORTS
+
+import java.util.Arrays;
+// =============================================================================
+
+
+
+// =============================================================================
+/**
+ * Extracts frames delimited by start and stop tags, with an escape tag
+ * marking literal data, from a stream of bytes delivered one at a time.  The
+ * deframer remembers whether it is hunting for a start tag, inside a frame,
+ * or just past an escape tag, so each byte costs a constant amount of work,
+ * and each frame's payload is produced exactly once, when its stop tag
+ * arrives.
+ *
+ * @file   TagDeframer.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class TagDeframer {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The constructor.
+     *
+     * @param startTag  The byte that begins a frame.
+     * @param stopTag   The byte that ends a frame.
+     * @param escapeTag The byte that marks the following byte as literal.
+     */
+    public TagDeframer (byte startTag, byte stopTag, byte escapeTag) {
+
+	this.startTag  = startTag;
+	this.stopTag   = stopTag;
+	this.escapeTag = escapeTag;
+	this.payload   = new byte[INITIAL_CAPACITY];
+	this.state     = State.HUNTING;
+
+    } // TagDeframer ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Take in the next byte of the stream.  If it is...
+     *   (a) Hunting:          Anything but a start tag is discarded.
+     *   (b) After an escape:  It is literal data.
+     *   (c) A start tag:      All that precedes it is damaged, so restart
+     *                         the frame.
+     *   (d) A stop tag:       The frame is complete.
+     *   (e) An escape tag:    Await the literal byte that follows.
+     *   (f) Otherwise:        It is literal data.
+     *
+     * @param  current The next byte.
+     * @return The payload of the frame that this byte completes, or
+     *         <code>null</code> if it does not complete one.
+     */
+    public byte[] accept (byte current) {
+
+	if (state == State.HUNTING) {
+	    if (current == startTag) {
+		startFrame();
+	    }
+	} else if (state == State.ESCAPED) {
+	    append(current);
+	    state = State.IN_FRAME;
+	} else if (current == startTag) {
+	    startFrame();
+	} else if (current == stopTag) {
+	    state = State.HUNTING;
+	    return Arrays.copyOf(payload, length);
+	} else if (current == escapeTag) {
+	    state = State.ESCAPED;
+	} else {
+	    append(current);
+	}
+	return null;
+
+    } // accept ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Take bytes from the front of a buffer until one completes a frame, or
+     * the buffer runs out.
+     *
+     * @param  buffer The received bytes.
+     * @return The payload of the completed frame, or <code>null</code> if the
+     *         buffer ran out first.
+     */
+    public byte[] accept (ByteRingBuffer buffer) {
+
+	byte[] payload = null;
+	while (payload == null && !buffer.isEmpty()) {
+	    payload = accept(buffer.remove());
+	}
+	return payload;
+
+    } // accept ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /** Discard any partial frame and return to hunting for a start tag. */
+    public void reset () {
+
+	state  = State.HUNTING;
+	length = 0;
+
+    } // reset ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // PRIVATE METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    private void startFrame () {
+
+	state  = State.IN_FRAME;
+	length = 0;
+
+    } // startFrame ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    private void append (byte current) {
+
+	if (length == payload.length) {
+	    payload = Arrays.copyOf(payload, payload.length * 2);
+	}
+	payload[length] = current;
+	length += 1;
+
+    } // append ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** Where the deframer is within the stream. */
+    private enum State { HUNTING, IN_FRAME, ESCAPED }
+
+    /** The current state. */
+    private State        state;
+
+    /** The payload of the current frame so far. */
+    private byte[]       payload;
+
+    /** The number of bytes in <code>payload</code>. */
+    private int          length;
+
+    /** The start tag, stop tag, and the escape tag. */
+    private final byte   startTag;
+    private final byte   stopTag;
+    private final byte   escapeTag;
+
+    /** The initial payload capacity; it grows as needed. */
+    private static final int INITIAL_CAPACITY = 32;
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class TagDeframer
+// =============================================================================
@@ -0,0 +1,136 @@
+// =============================================================================
+/**
+ * Builds frames delimited by start and stop tags, preceding any data byte
+ * that is itself a tag with an escape tag.  Frames are written straight into
+ * an output buffer that is kept and reused from one frame to the next, grown
+ * only when a frame could need more room than any before it, so steady-state
+ * framing allocates nothing.  A frame stays valid only until the next one
+ * is begun.
+ *
+ * @file   TagFrameEncoder.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class TagFrameEncoder {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The constructor.
+     *
+     * @param startTag  The byte that begins a frame.
+     * @param stopTag   The byte that ends a frame.
+     * @param escapeTag The byte that marks the following byte as literal.
+     */
+    public TagFrameEncoder (byte startTag, byte stopTag, byte escapeTag) {
+
+	this.startTag  = startTag;
+	this.stopTag   = stopTag;
+	this.escapeTag = escapeTag;
+	this.buffer    = new byte[0];
+
+    } // TagFrameEncoder ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Begin a new frame, discarding the previous one, and write its start
+     * tag.
+     *
+     * @param maxContent The most bytes of content the frame will carry.  The
+     *                   buffer is sized so that, even if every one of them
+     *                   must be escaped, it will not need to grow mid-frame.
+     */
+    public void begin (int maxContent) {
+
+	int worstCase = 2 * maxContent + 2;
+	if (buffer.length < worstCase) {
+	    buffer = new byte[worstCase];
+	}
+	buffer[0] = startTag;
+	length    = 1;
+
+    } // begin ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * Add a byte of content to the frame, escaping it if it is a tag.
+     *
+     * @param current The byte to add.
+     */
+    public void put (byte current) {
+
+	if ((current == startTag) ||
+	    (current == stopTag)  ||
+	    (current == escapeTag)) {
+	    buffer[length++] = escapeTag;
+	}
+	buffer[length++] = current;
+
+    } // put ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * End the frame by writing its stop tag.
+     *
+     * @return The number of bytes in the frame.
+     */
+    public int end () {
+
+	buffer[length++] = stopTag;
+	return length;
+
+    } // end ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * @return The buffer holding the current frame, starting at index 0.
+     */
+    public byte[] getBuffer () {
+
+	return buffer;
+
+    } // getBuffer ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    /** The reusable output buffer. */
+    private byte[]     buffer;
+
+    /** The number of bytes of the current frame written so far. */
+    private int        length;
+
+    /** The start tag, stop tag, and the escape tag. */
+    private final byte startTag;
+    private final byte stopTag;
+    private final byte escapeTag;
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class TagFrameEncoder
+// =============================================================================
@@ -0,0 +1,94 @@
+// =============================================================================
+/**
+ * A framer that delimits frames with start and stop tags, escaping any tag
+ * byte within the content, as the original data link layers do.
+ *
+ * @file   TagFramer.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class TagFramer implements LinkFramer {
+// =============================================================================
+
+
+
+    // =========================================================================
+    // PUBLIC METHODS
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public void frame (CodecBuffer in, CodecBuffer out) {
+
+	byte[] content = in.getArray();
+	encoder.begin(in.getLength());
+	for (int i = 0; i < in.getLength(); i += 1) {
+	    encoder.put(content[i]);
+	}
+	out.append(encoder.getBuffer(), 0, encoder.end());
+
+    } // frame ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public boolean extract (ByteRingBuffer buffer, CodecBuffer out) {
+
+	byte[] content = deframer.accept(buffer);
+	if (content == null) {
+	    return false;
+	}
+	out.append(content, 0, content.length);
+	return true;
+
+    } // extract ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The frame's bytes are consumed as it is extracted, so there is nothing
+     * left to drop.
+     */
+    public void release (ByteRingBuffer buffer, boolean intact) {
+
+    } // release ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    public int getMaxContentLength () {
+
+	return Integer.MAX_VALUE;
+
+    } // getMaxContentLength ()
+    // =========================================================================
+
+
+
+    // =========================================================================
+    // DATA MEMBERS
+
+    // The start tag, stop tag, and the escape tag.
+    private final byte startTag  = (byte)'{';
+    private final byte stopTag   = (byte)'}';
+    private final byte escapeTag = (byte)'\\';
+
+    /** The encoder that builds outgoing frames in a reusable buffer. */
+    private final TagFrameEncoder encoder =
+	new TagFrameEncoder(startTag, stopTag, escapeTag);
+
+    /** The deframer that extracts frames as their bytes arrive. */
+    private final TagDeframer deframer =
+	new TagDeframer(startTag, stopTag, escapeTag);
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class TagFramer
+// =============================================================================
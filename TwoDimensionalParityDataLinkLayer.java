@@ -0,0 +1,32 @@
+// =============================================================================
+/**
+ * A parity data link layer in two-dimensional mode, so that it can be picked
+ * by name: each frame carries a parity bit per data byte and a parity byte
+ * per bit position, and a single flipped bit is corrected rather than the
+ * frame thrown out.  See <code>ParityDataLinkLayer.setTwoDimensional()</code>.
+ *
+ * @file   TwoDimensionalParityDataLinkLayer.java
+ * @author Aime Cesaire Mugishawayo (cmugishawayo25@amherst.edu)
+ * @date   September 2023
+ */
+public class TwoDimensionalParityDataLinkLayer extends ParityDataLinkLayer {
+// =============================================================================
+
+
+
+    // =========================================================================
+    /**
+     * The constructor.
+     */
+    public TwoDimensionalParityDataLinkLayer () {
+
+	setTwoDimensional(true);
+
+    } // TwoDimensionalParityDataLinkLayer ()
+    // =========================================================================
+
+
+
+// =============================================================================
+} // class TwoDimensionalParityDataLinkLayer
+// =============================================================================